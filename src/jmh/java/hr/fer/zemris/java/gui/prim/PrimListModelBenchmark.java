@@ -0,0 +1,92 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the generation of the prime numbers in the
+ * {@link PrimListModel}. Primes are generated after the model was advanced to
+ * the given magnitude.
+ * 
+ * @author Dinz
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimListModelBenchmark {
+
+	/**
+	 * State with a model advanced to the given magnitude.
+	 */
+	@State(Scope.Thread)
+	public static class ModelState {
+
+		/**
+		 * Magnitude of the generated primes.
+		 */
+		@Param({ "1000", "1000000", "1000000000" })
+		public int magnitude;
+
+		/**
+		 * Benchmarked model.
+		 */
+		public PrimListModel model;
+
+		/**
+		 * Benchmarked sieve.
+		 */
+		public PrimeSieve sieve;
+
+		/**
+		 * Creates a fresh model and sieve for each iteration, so the growth during
+		 * one iteration does not move the magnitude.
+		 */
+		@Setup(Level.Iteration)
+		public void setUp() {
+			model = new PrimListModel();
+			model.advanceTo(magnitude);
+			sieve = new PrimeSieve(magnitude);
+		}
+	}
+
+	/**
+	 * Measures the throughput of {@link PrimListModel#next()}.
+	 * 
+	 * @param state
+	 *            Benchmark state.
+	 * @return Size of the model.
+	 */
+	@Benchmark
+	public int modelNext(ModelState state) {
+		state.model.next();
+		return state.model.getSize();
+	}
+
+	/**
+	 * Measures the throughput of {@link PrimeSieve#next()}, which is the engine
+	 * behind {@link PrimListModel#next()}.
+	 * 
+	 * @param state
+	 *            Benchmark state.
+	 * @return Next prime.
+	 */
+	@Benchmark
+	public int sieveNext(ModelState state) {
+		return state.sieve.next();
+	}
+}
@@ -0,0 +1,119 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the latency of {@link PrimListModel#getElementAt(int)} for the
+ * sequential and the random indices, with each kind of the prime storage.
+ * 
+ * @author Dinz
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrimLookupBenchmark {
+
+	/**
+	 * Number of precomputed random indices.
+	 */
+	private static final int RANDOM_INDICES = 1 << 16;
+
+	/**
+	 * Kind of the prime storage.
+	 */
+	@Param({ "array", "compressed" })
+	public String store;
+
+	/**
+	 * Number of primes in the model.
+	 */
+	@Param({ "1000000" })
+	public int size;
+
+	/**
+	 * Benchmarked model.
+	 */
+	private PrimListModel model;
+
+	/**
+	 * Random indices of the model.
+	 */
+	private int[] indices;
+
+	/**
+	 * Next sequential index.
+	 */
+	private int sequential;
+
+	/**
+	 * Next position in the random indices.
+	 */
+	private int random;
+
+	/**
+	 * Fills the model and computes the random indices.
+	 */
+	@Setup
+	public void setUp() {
+		model = new PrimListModel(store.equals("compressed") ? new GapCompressedPrimeStore() : new IntArrayPrimeStore());
+		model.next(size);
+
+		Random generator = new Random(42);
+		indices = new int[RANDOM_INDICES];
+		for (int i = 0; i < indices.length; i++) {
+			indices[i] = generator.nextInt(model.getSize());
+		}
+	}
+
+	/**
+	 * Measures the lookup of the sequential indices.
+	 * 
+	 * @return Looked up element.
+	 */
+	@Benchmark
+	public Integer sequential() {
+		if (sequential == model.getSize()) {
+			sequential = 0;
+		}
+		return model.getElementAt(sequential++);
+	}
+
+	/**
+	 * Measures the lookup of the random indices.
+	 * 
+	 * @return Looked up element.
+	 */
+	@Benchmark
+	public Integer random() {
+		random = (random + 1) & (RANDOM_INDICES - 1);
+		return model.getElementAt(indices[random]);
+	}
+
+	/**
+	 * Measures the unboxed lookup of the random indices.
+	 * 
+	 * @return Looked up element.
+	 */
+	@Benchmark
+	public int randomInt() {
+		random = (random + 1) & (RANDOM_INDICES - 1);
+		return model.getInt(indices[random]);
+	}
+}
@@ -2,7 +2,6 @@ package hr.fer.zemris.java.gui.calc;
 
 import java.awt.Color;
 import java.awt.Container;
-import java.util.function.DoubleBinaryOperator;
 
 import javax.swing.JButton;
 import javax.swing.JOptionPane;
@@ -112,7 +111,7 @@ public class BinaryOperationButton extends JButton {
 				}
 			}
 			model.setActiveOperand(model.getValue());
-			model.setPendingBinaryOperation(Double::sum);
+			model.setPendingBinaryOperation(Operators.ADD);
 			model.setValue(0);
 		});
 	}
@@ -135,7 +134,7 @@ public class BinaryOperationButton extends JButton {
 				}
 			}
 			model.setActiveOperand(model.getValue());
-			model.setPendingBinaryOperation(new Subtract());
+			model.setPendingBinaryOperation(Operators.SUBTRACT);
 			model.setValue(0);
 		});
 	}
@@ -159,7 +158,7 @@ public class BinaryOperationButton extends JButton {
 			}
 
 			model.setActiveOperand(model.getValue());
-			model.setPendingBinaryOperation(new Divide());
+			model.setPendingBinaryOperation(Operators.DIVIDE);
 			model.setValue(0);
 
 		});
@@ -184,66 +183,9 @@ public class BinaryOperationButton extends JButton {
 				}
 			}
 			model.setActiveOperand(model.getValue());
-			model.setPendingBinaryOperation(new Multiply());
+			model.setPendingBinaryOperation(Operators.MULTIPLY);
 			model.setValue(0);
 		});
 	}
 
-	/**
-	 * Class that represents a divide double binary operator which is used for
-	 * division in a calculator.
-	 * 
-	 * @author Dinz
-	 *
-	 */
-	public static class Divide implements DoubleBinaryOperator {
-
-		/**
-		 * Applies the division operation on two operands.
-		 */
-		@Override
-		public double applyAsDouble(double left, double right) {
-			return left / right;
-		}
-
-	}
-
-	/**
-	 * Class that represents a subtract double binary operator which is used for
-	 * subtraction in a calculator.
-	 * 
-	 * @author Dinz
-	 *
-	 */
-	public static class Subtract implements DoubleBinaryOperator {
-
-		/**
-		 * Applies the subtraction operation on two operands.
-		 */
-		@Override
-		public double applyAsDouble(double left, double right) {
-			return left - right;
-		}
-
-	}
-
-	/**
-	 * Class that represents a multiply double binary operator which is used for
-	 * subtraction in a calculator.
-	 * 
-	 * @author Dinz
-	 *
-	 */
-	public static class Multiply implements DoubleBinaryOperator {
-
-		/**
-		 * Applies the multiplication operation on two operands.
-		 */
-		@Override
-		public double applyAsDouble(double left, double right) {
-			return left * right;
-		}
-
-	}
-
 }
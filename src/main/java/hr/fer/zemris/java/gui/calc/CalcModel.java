@@ -119,4 +119,29 @@ public interface CalcModel {
 	 *            Binary operator.
 	 */
 	void setPendingBinaryOperation(DoubleBinaryOperator op);
+
+	/**
+	 * Pushes a value to the calculator's stack.
+	 * 
+	 * @param value
+	 *            Value to be pushed.
+	 */
+	void push(double value);
+
+	/**
+	 * Pops the value from the calculator's stack.
+	 * 
+	 * @return Popped value.
+	 * @throws java.util.EmptyStackException
+	 *             If the stack is empty.
+	 */
+	double pop();
+
+	/**
+	 * Gets the calculator's stack, on which the calculations in the reverse
+	 * Polish notation can be done directly.
+	 * 
+	 * @return Stack of the calculator.
+	 */
+	DoubleStack getStack();
 }
\ No newline at end of file
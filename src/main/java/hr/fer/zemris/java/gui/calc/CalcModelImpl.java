@@ -1,13 +1,16 @@
 package hr.fer.zemris.java.gui.calc;
 
 import java.util.ArrayList;
-import java.util.EmptyStackException;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Stack;
 import java.util.function.DoubleBinaryOperator;
 
 /**
- * Class that represents a concrete implementation of the calculator model.
+ * Class that represents a concrete implementation of the calculator model. The
+ * entered number is kept as its characters, its sign and its digits as a
+ * decimal mantissa and scale, from which the value is updated after each
+ * change, so reading the value never parses the entry. The shown text is
+ * rendered only when the state changed since it was last shown.
  * 
  * @author Dinz
  *
@@ -15,9 +18,79 @@ import java.util.function.DoubleBinaryOperator;
 public class CalcModelImpl implements CalcModel {
 
 	/**
-	 * Currently shown number on the calculator.
+	 * Maximum number of significant digits kept in the {@link #mantissa}.
 	 */
-	private String currentNumber = null;
+	private static final int MAX_MANTISSA_DIGITS = 18;
+
+	/**
+	 * Largest mantissa which is exactly representable as a double.
+	 */
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+	/**
+	 * Powers of ten which are exactly representable as doubles.
+	 */
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/**
+	 * Flag that checks if a number is entered. If it is not, the calculator
+	 * shows zero.
+	 */
+	private boolean entered;
+
+	/**
+	 * Flag that checks if the entered number is negative.
+	 */
+	private boolean negative;
+
+	/**
+	 * Characters of the entered number without the sign, which are digits and
+	 * at most one decimal point. Only the first {@link #length} are used.
+	 */
+	private char[] entry = new char[32];
+
+	/**
+	 * Number of used characters of the entry.
+	 */
+	private int length;
+
+	/**
+	 * Index of the decimal point in the entry, or -1 if there is none.
+	 */
+	private int point = -1;
+
+	/**
+	 * Significant digits of the entered number, without the leading zeros.
+	 * Valid only if there are at most {@link #MAX_MANTISSA_DIGITS} of them.
+	 */
+	private long mantissa;
+
+	/**
+	 * Number of significant digits of the entered number.
+	 */
+	private int significantDigits;
+
+	/**
+	 * Number of digits after the decimal point.
+	 */
+	private int scale;
+
+	/**
+	 * Value of the entered number.
+	 */
+	private double value;
+
+	/**
+	 * Flag that checks if the entered number was typed. If it was set by
+	 * {@link #setValue(double)}, it is shown formatted from its value.
+	 */
+	private boolean typed;
+
+	/**
+	 * Text shown for the current state, or null if it has to be rendered again.
+	 */
+	private String display;
 
 	/**
 	 * Currently pending operator of the calculator.
@@ -42,7 +115,7 @@ public class CalcModelImpl implements CalcModel {
 	/**
 	 * Stack in the calculator model.
 	 */
-	private Stack<Double> stack = new Stack<>();
+	private final DoubleStack stack = new DoubleStack();
 
 	/**
 	 * {@inheritDoc}
@@ -71,11 +144,7 @@ public class CalcModelImpl implements CalcModel {
 	 */
 	@Override
 	public double getValue() {
-		if (this.currentNumber == null) {
-			return 0.0;
-		} else {
-			return Double.parseDouble(this.currentNumber);
-		}
+		return entered ? value : 0.0;
 	}
 
 	/**
@@ -84,11 +153,9 @@ public class CalcModelImpl implements CalcModel {
 	@Override
 	public void setValue(double value) {
 		if (!Double.isNaN(value) && value != Double.NEGATIVE_INFINITY && value != Double.POSITIVE_INFINITY) {
-			if (value % 1 == 0) {
-				this.currentNumber = Integer.toString((int) value);
-			} else {
-				this.currentNumber = Double.toString(value);
-			}
+			load(CalcNumberFormatter.format(value));
+			this.value = value;
+			this.typed = false;
 		} else {
 			throw new IllegalArgumentException();
 		}
@@ -101,7 +168,7 @@ public class CalcModelImpl implements CalcModel {
 	 */
 	@Override
 	public void clear() {
-		this.currentNumber = null;
+		this.entered = false;
 		notifyListeners();
 	}
 
@@ -110,7 +177,7 @@ public class CalcModelImpl implements CalcModel {
 	 */
 	@Override
 	public void clearAll() {
-		this.currentNumber = null;
+		this.entered = false;
 		this.activeOperand = 0.0;
 		this.activeOperandSet = false;
 		this.pendingOperation = null;
@@ -124,18 +191,12 @@ public class CalcModelImpl implements CalcModel {
 	 */
 	@Override
 	public void swapSign() {
-		if (currentNumber == null) {
+		if (!entered) {
 			return;
 		}
 
-		if (this.currentNumber.startsWith("-")) {
-			this.currentNumber = this.currentNumber.replace("-", "");
-		} else {
-			StringBuilder sb = new StringBuilder();
-			sb.append("-");
-			sb.append(this.currentNumber);
-			this.currentNumber = sb.toString();
-		}
+		this.negative = !negative;
+		this.value = -value;
 
 		notifyListeners();
 
@@ -146,13 +207,14 @@ public class CalcModelImpl implements CalcModel {
 	 */
 	@Override
 	public void insertDecimalPoint() {
-		if (this.currentNumber == null) {
-			this.currentNumber = "0";
+		if (!entered) {
+			reset();
+			append('0');
 		}
-		if (this.currentNumber.contains(".")) {
+		if (point >= 0) {
 			return;
 		}
-		this.currentNumber = this.currentNumber.concat(".");
+		append('.');
 
 		notifyListeners();
 	}
@@ -162,10 +224,13 @@ public class CalcModelImpl implements CalcModel {
 	 */
 	@Override
 	public void insertDigit(int digit) {
-		if (this.currentNumber == null) {
-			this.currentNumber = Integer.toString(digit);
-		} else if (Double.parseDouble(currentNumber) < Double.MAX_VALUE / 10.0) {
-			this.currentNumber = this.currentNumber.concat(Integer.toString(digit));
+		if (!entered) {
+			reset();
+			append((char) ('0' + digit));
+			updateValue();
+		} else if (Math.abs(value) < Double.MAX_VALUE / 10.0) {
+			append((char) ('0' + digit));
+			updateValue();
 		}
 
 		notifyListeners();
@@ -229,86 +294,178 @@ public class CalcModelImpl implements CalcModel {
 	}
 
 	/**
-	 * Pushes a value to the calculator's stack.
-	 * 
-	 * @param value
-	 *            Value to be pushed.
+	 * {@inheritDoc}
 	 */
+	@Override
 	public void push(double value) {
 		stack.push(value);
 	}
 
 	/**
-	 * Pops the value from the calculator's stack.
-	 * 
-	 * @return Popped value.
+	 * {@inheritDoc}
 	 */
+	@Override
 	public double pop() {
-		if (stack.isEmpty()) {
-			throw new EmptyStackException();
-		}
 		return stack.pop();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public DoubleStack getStack() {
+		return stack;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public String toString() {
-		if (this.currentNumber == null) {
+		if (display == null) {
+			display = render();
+		}
+		return display;
+	}
+
+	/**
+	 * Renders the text shown for the current state. A typed number is shown
+	 * as it was typed, whatever its length, only without its leading zeros
+	 * and with a zero after the decimal point if there are no digits after it.
+	 * 
+	 * @return Shown text.
+	 */
+	private String render() {
+		if (!entered) {
 			return "0";
-		} else {
-			if (isInteger(this.currentNumber)) {
-				int cn = Integer.parseInt(currentNumber);
-				if (cn == 0 && this.currentNumber.startsWith("-")) {
-					return "-0";
-				}
-				return Integer.toString(cn);
-			}
-			if (isDouble(this.currentNumber)) {
-				double cn = Double.parseDouble(currentNumber);
-				return Double.toString(cn);
-			}
 		}
-		return this.currentNumber;
+		if (!typed) {
+			return CalcNumberFormatter.format(value);
+		}
+
+		char[] text = new char[length + 2];
+		int index = 0;
+		if (negative) {
+			text[index++] = '-';
+		}
+		int start = 0;
+		while (start < length - 1 && entry[start] == '0' && entry[start + 1] != '.') {
+			start++;
+		}
+		for (int i = start; i < length; i++) {
+			text[index++] = entry[i];
+		}
+		if (point == length - 1) {
+			text[index++] = '0';
+		}
+		return new String(text, 0, index);
 	}
 
 	/**
-	 * Checks if the string value is integer.
+	 * Starts a new empty entry.
+	 */
+	private void reset() {
+		entered = true;
+		typed = true;
+		negative = false;
+		length = 0;
+		point = -1;
+		mantissa = 0;
+		significantDigits = 0;
+		scale = 0;
+		value = 0;
+	}
+
+	/**
+	 * Appends the digit or the decimal point to the entry and updates the
+	 * mantissa and the scale. The value is not updated.
 	 * 
-	 * @param s
-	 *            String value.
-	 * @return True if the string is parseable to integer, false otherwise.
-	 */
-	private static boolean isInteger(String s) {
-		try {
-			Integer.parseInt(s);
-		} catch (NumberFormatException e) {
-			return false;
-		} catch (NullPointerException e) {
-			return false;
+	 * @param c
+	 *            Digit or decimal point.
+	 */
+	private void append(char c) {
+		if (length == entry.length) {
+			entry = Arrays.copyOf(entry, entry.length * 2);
+		}
+		entry[length++] = c;
+		if (c == '.') {
+			point = length - 1;
+			return;
+		}
+		if (point >= 0) {
+			scale++;
+		}
+		int digit = c - '0';
+		if (significantDigits > 0 || digit != 0) {
+			if (significantDigits < MAX_MANTISSA_DIGITS) {
+				mantissa = mantissa * 10 + digit;
+			}
+			significantDigits++;
+		}
+	}
+
+	/**
+	 * Updates the value from the mantissa and the scale. If they do not give
+	 * the exact value with one division, the entry is parsed instead.
+	 */
+	private void updateValue() {
+		double magnitude;
+		if (significantDigits <= MAX_MANTISSA_DIGITS && mantissa <= MAX_EXACT_MANTISSA
+				&& scale < POWERS_OF_TEN.length) {
+			magnitude = mantissa / POWERS_OF_TEN[scale];
+		} else {
+			magnitude = Double.parseDouble(new String(entry, 0, length));
 		}
-		// only got here if we didn't return false
-		return true;
+		value = negative ? -magnitude : magnitude;
 	}
 
 	/**
-	 * Checks if the string value is double.
+	 * Loads the entry from the number written by the
+	 * {@link CalcNumberFormatter}. The scientific notation is written out as
+	 * plain digits.
 	 * 
-	 * @param s
-	 *            String value.
-	 * @return True if the string is parseable to double, false otherwise.
-	 */
-	private static boolean isDouble(String s) {
-		try {
-			Double.parseDouble(s);
-		} catch (NumberFormatException e) {
-			return false;
-		} catch (NullPointerException e) {
-			return false;
+	 * @param number
+	 *            Number to be loaded.
+	 */
+	private void load(String number) {
+		reset();
+		int start = number.startsWith("-") ? 1 : 0;
+		int exponentIndex = number.indexOf('E');
+		int end = exponentIndex < 0 ? number.length() : exponentIndex;
+		int exponent = exponentIndex < 0 ? 0 : Integer.parseInt(number.substring(exponentIndex + 1));
+		if (number.startsWith(".0", end - 2)) {
+			end -= 2;
+		}
+
+		int dot = number.indexOf('.');
+		int integerDigits = (dot < 0 || dot > end ? end : dot) - start;
+		int pointIndex = integerDigits + exponent;
+		if (pointIndex <= 0) {
+			append('0');
+			append('.');
+			for (int i = pointIndex; i < 0; i++) {
+				append('0');
+			}
 		}
-		// only got here if we didn't return false
-		return true;
+
+		int written = 0;
+		for (int i = start; i < end; i++) {
+			char c = number.charAt(i);
+			if (c == '.') {
+				continue;
+			}
+			if (written == pointIndex && pointIndex > 0) {
+				append('.');
+			}
+			append(c);
+			written++;
+		}
+		for (; written < pointIndex; written++) {
+			append('0');
+		}
+
+		negative = start == 1;
+		updateValue();
 	}
 
 	/**
@@ -316,6 +473,7 @@ public class CalcModelImpl implements CalcModel {
 	 * calculator.
 	 */
 	private void notifyListeners() {
+		display = null;
 		for (CalcValueListener listener : listeners) {
 			listener.valueChanged(this);
 		}
@@ -0,0 +1,436 @@
+package hr.fer.zemris.java.gui.calc;
+
+import java.math.BigInteger;
+
+/**
+ * Class that formats the numbers shown on the calculator's display. Integral
+ * values which are exactly representable as longs are written with all their
+ * digits. Other values are written with the shortest sequence of digits which
+ * is parsed back to the same double, found by the Ryu algorithm of Ulf Adams.
+ * The digits are written in the plain notation if the magnitude is at least
+ * 10^-3 and below 10^7, and in the scientific notation otherwise. No
+ * exceptions are used for the control flow.
+ * 
+ * @author Dinz
+ *
+ */
+public class CalcNumberFormatter {
+
+	/**
+	 * Smallest decimal exponent of the leading digit written in the plain
+	 * notation.
+	 */
+	private static final int PLAIN_MIN_EXPONENT = -3;
+
+	/**
+	 * Decimal exponent of the leading digit from which the non-integral values
+	 * are written in the scientific notation.
+	 */
+	private static final int PLAIN_MAX_EXPONENT = 7;
+
+	/**
+	 * Largest magnitude of the integral values which are written with all
+	 * their digits.
+	 */
+	private static final double EXACT_LONG_MAX = 1L << 53;
+
+	/**
+	 * Number of explicitly stored bits of the double mantissa.
+	 */
+	private static final int MANTISSA_BITS = 52;
+
+	/**
+	 * Number of bits of the double exponent.
+	 */
+	private static final int EXPONENT_BITS = 11;
+
+	/**
+	 * Bias of the double exponent.
+	 */
+	private static final int EXPONENT_BIAS = 1023;
+
+	/**
+	 * Number of bits of the multipliers for the powers of five.
+	 */
+	private static final int POW5_BITCOUNT = 125;
+
+	/**
+	 * Number of bits of the multipliers for the inverses of the powers of five.
+	 */
+	private static final int POW5_INV_BITCOUNT = 125;
+
+	/**
+	 * Number of the multipliers for the powers of five.
+	 */
+	private static final int POW5_TABLE_SIZE = 326;
+
+	/**
+	 * Number of the multipliers for the inverses of the powers of five.
+	 */
+	private static final int POW5_INV_TABLE_SIZE = 342;
+
+	/**
+	 * Lower and upper 64 bits of the powers of five, normalized to
+	 * {@link #POW5_BITCOUNT} bits.
+	 */
+	private static final long[][] POW5_SPLIT = new long[POW5_TABLE_SIZE][2];
+
+	/**
+	 * Lower and upper 64 bits of the inverses of the powers of five, scaled so
+	 * they have {@link #POW5_INV_BITCOUNT} bits.
+	 */
+	private static final long[][] POW5_INV_SPLIT = new long[POW5_INV_TABLE_SIZE][2];
+
+	static {
+		BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+		BigInteger five = BigInteger.valueOf(5);
+		for (int i = 0; i < POW5_INV_TABLE_SIZE; i++) {
+			BigInteger pow = five.pow(i);
+			int length = pow.bitLength();
+			if (i < POW5_TABLE_SIZE) {
+				BigInteger normalized = pow.shiftRight(length - POW5_BITCOUNT);
+				POW5_SPLIT[i][0] = normalized.and(mask).longValue();
+				POW5_SPLIT[i][1] = normalized.shiftRight(64).longValue();
+			}
+			BigInteger inverse = BigInteger.ONE.shiftLeft(length - 1 + POW5_INV_BITCOUNT).divide(pow)
+					.add(BigInteger.ONE);
+			POW5_INV_SPLIT[i][0] = inverse.and(mask).longValue();
+			POW5_INV_SPLIT[i][1] = inverse.shiftRight(64).longValue();
+		}
+	}
+
+	/**
+	 * Disables the construction of the class.
+	 */
+	private CalcNumberFormatter() {
+	}
+
+	/**
+	 * Formats the value for the display. Negative zero is shown as zero.
+	 * 
+	 * @param value
+	 *            Value to be formatted.
+	 * @return Formatted value.
+	 */
+	public static String format(double value) {
+		if (Double.isNaN(value)) {
+			return "NaN";
+		}
+		if (Double.isInfinite(value)) {
+			return value > 0 ? "Infinity" : "-Infinity";
+		}
+		if (value == 0) {
+			return "0";
+		}
+		if (value % 1 == 0 && Math.abs(value) <= EXACT_LONG_MAX) {
+			return Long.toString((long) value);
+		}
+
+		long bits = Double.doubleToRawLongBits(value);
+		boolean negative = bits < 0;
+		long ieeeMantissa = bits & ((1L << MANTISSA_BITS) - 1);
+		int ieeeExponent = (int) ((bits >>> MANTISSA_BITS) & ((1 << EXPONENT_BITS) - 1));
+
+		int e2;
+		long m2;
+		if (ieeeExponent == 0) {
+			e2 = 1 - EXPONENT_BIAS - MANTISSA_BITS - 2;
+			m2 = ieeeMantissa;
+		} else {
+			e2 = ieeeExponent - EXPONENT_BIAS - MANTISSA_BITS - 2;
+			m2 = ieeeMantissa | (1L << MANTISSA_BITS);
+		}
+		boolean even = (m2 & 1) == 0;
+		long mv = 4 * m2;
+		int mmShift = ieeeMantissa != 0 || ieeeExponent <= 1 ? 1 : 0;
+		long mp = mv + 2;
+		long mm = mv - 1 - mmShift;
+
+		// the interval of the values which round to this double, scaled to
+		// the decimal exponent e10
+		long vr;
+		long vp;
+		long vm;
+		int e10;
+		boolean vmIsTrailingZeros = false;
+		boolean vrIsTrailingZeros = false;
+		if (e2 >= 0) {
+			int q = log10Pow2(e2) - (e2 > 3 ? 1 : 0);
+			e10 = q;
+			int k = POW5_INV_BITCOUNT + pow5Bits(q) - 1;
+			int i = -e2 + q + k;
+			vr = mulShift(mv, POW5_INV_SPLIT[q], i);
+			vp = mulShift(mp, POW5_INV_SPLIT[q], i);
+			vm = mulShift(mm, POW5_INV_SPLIT[q], i);
+			if (q <= 21) {
+				if (mv % 5 == 0) {
+					vrIsTrailingZeros = pow5Factor(mv) >= q;
+				} else if (even) {
+					vmIsTrailingZeros = pow5Factor(mm) >= q;
+				} else if (pow5Factor(mp) >= q) {
+					vp--;
+				}
+			}
+		} else {
+			int q = log10Pow5(-e2) - (-e2 > 1 ? 1 : 0);
+			e10 = q + e2;
+			int i = -e2 - q;
+			int k = pow5Bits(i) - POW5_BITCOUNT;
+			int j = q - k;
+			vr = mulShift(mv, POW5_SPLIT[i], j);
+			vp = mulShift(mp, POW5_SPLIT[i], j);
+			vm = mulShift(mm, POW5_SPLIT[i], j);
+			if (q <= 1) {
+				vrIsTrailingZeros = true;
+				if (even) {
+					vmIsTrailingZeros = mmShift == 1;
+				} else {
+					vp--;
+				}
+			} else if (q < 63) {
+				vrIsTrailingZeros = (mv & ((1L << q) - 1)) == 0;
+			}
+		}
+
+		// the shortest digits in the interval
+		int removed = 0;
+		int lastRemovedDigit = 0;
+		long output;
+		if (vmIsTrailingZeros || vrIsTrailingZeros) {
+			while (vp / 10 > vm / 10) {
+				vmIsTrailingZeros &= vm % 10 == 0;
+				vrIsTrailingZeros &= lastRemovedDigit == 0;
+				lastRemovedDigit = (int) (vr % 10);
+				vr /= 10;
+				vp /= 10;
+				vm /= 10;
+				removed++;
+			}
+			if (vmIsTrailingZeros) {
+				while (vm % 10 == 0) {
+					vrIsTrailingZeros &= lastRemovedDigit == 0;
+					lastRemovedDigit = (int) (vr % 10);
+					vr /= 10;
+					vp /= 10;
+					vm /= 10;
+					removed++;
+				}
+			}
+			if (vrIsTrailingZeros && lastRemovedDigit == 5 && vr % 2 == 0) {
+				lastRemovedDigit = 4;
+			}
+			boolean roundUp = (vr == vm && (!even || !vmIsTrailingZeros)) || lastRemovedDigit >= 5;
+			output = vr + (roundUp ? 1 : 0);
+		} else {
+			boolean roundUp = false;
+			if (vp / 100 > vm / 100) {
+				roundUp = vr % 100 >= 50;
+				vr /= 100;
+				vp /= 100;
+				vm /= 100;
+				removed += 2;
+			}
+			while (vp / 10 > vm / 10) {
+				roundUp = vr % 10 >= 5;
+				vr /= 10;
+				vp /= 10;
+				vm /= 10;
+				removed++;
+			}
+			output = vr + (vr == vm || roundUp ? 1 : 0);
+		}
+		return render(negative, output, e10 + removed);
+	}
+
+	/**
+	 * Writes the number given by its decimal digits and exponent.
+	 * 
+	 * @param negative
+	 *            Flag that checks if the number is negative.
+	 * @param digits
+	 *            Decimal digits of the number.
+	 * @param exponent
+	 *            Decimal exponent, so the number is digits * 10^exponent.
+	 * @return Written number.
+	 */
+	private static String render(boolean negative, long digits, int exponent) {
+		// the digits are first written to the end of the buffer
+		char[] buffer = new char[64];
+		int count = decimalLength(digits);
+		int first = buffer.length - count;
+		for (int i = buffer.length - 1; i >= first; i--) {
+			buffer[i] = (char) ('0' + digits % 10);
+			digits /= 10;
+		}
+		// exponent of the leading digit
+		int leading = exponent + count - 1;
+
+		int length = 0;
+		if (negative) {
+			buffer[length++] = '-';
+		}
+		if (leading >= PLAIN_MIN_EXPONENT && leading < PLAIN_MAX_EXPONENT) {
+			if (leading < 0) {
+				buffer[length++] = '0';
+				buffer[length++] = '.';
+				for (int i = leading + 1; i < 0; i++) {
+					buffer[length++] = '0';
+				}
+				length = copy(buffer, first, count, length);
+			} else {
+				length = copy(buffer, first, Math.min(count, leading + 1), length);
+				for (int i = count; i <= leading; i++) {
+					buffer[length++] = '0';
+				}
+				if (count > leading + 1) {
+					buffer[length++] = '.';
+					length = copy(buffer, first + leading + 1, count - leading - 1, length);
+				}
+			}
+			return new String(buffer, 0, length);
+		}
+
+		buffer[length++] = buffer[first];
+		if (count > 1) {
+			buffer[length++] = '.';
+			length = copy(buffer, first + 1, count - 1, length);
+		}
+		buffer[length++] = 'E';
+		if (leading < 0) {
+			buffer[length++] = '-';
+			leading = -leading;
+		}
+		if (leading >= 100) {
+			buffer[length++] = (char) ('0' + leading / 100);
+		}
+		if (leading >= 10) {
+			buffer[length++] = (char) ('0' + leading / 10 % 10);
+		}
+		buffer[length++] = (char) ('0' + leading % 10);
+		return new String(buffer, 0, length);
+	}
+
+	/**
+	 * Copies the characters within the buffer.
+	 * 
+	 * @param buffer
+	 *            Buffer of the characters.
+	 * @param from
+	 *            Index of the first copied character.
+	 * @param count
+	 *            Number of copied characters.
+	 * @param to
+	 *            Index where the first character is copied.
+	 * @return Index after the last copied character.
+	 */
+	private static int copy(char[] buffer, int from, int count, int to) {
+		System.arraycopy(buffer, from, buffer, to, count);
+		return to + count;
+	}
+
+	/**
+	 * Multiplies the number by the 128-bit multiplier and shifts the product
+	 * right by the given number of bits.
+	 * 
+	 * @param m
+	 *            Non-negative number smaller than 2^55.
+	 * @param multiplier
+	 *            Lower and upper 64 bits of the multiplier.
+	 * @param shift
+	 *            Number of bits, greater than 64.
+	 * @return Shifted product.
+	 */
+	private static long mulShift(long m, long[] multiplier, int shift) {
+		long lowHigh = unsignedMultiplyHigh(m, multiplier[0]);
+		long highLow = m * multiplier[1];
+		long highHigh = unsignedMultiplyHigh(m, multiplier[1]);
+		long sumLow = highLow + lowHigh;
+		long sumHigh = highHigh + (Long.compareUnsigned(sumLow, highLow) < 0 ? 1 : 0);
+		int s = shift - 64;
+		if (s >= 64) {
+			return sumHigh >>> (s - 64);
+		}
+		if (s == 0) {
+			return sumLow;
+		}
+		return (sumLow >>> s) | (sumHigh << (64 - s));
+	}
+
+	/**
+	 * Computes the upper 64 bits of the unsigned product of two numbers.
+	 * 
+	 * @param a
+	 *            First factor.
+	 * @param b
+	 *            Second factor.
+	 * @return Upper 64 bits of the product.
+	 */
+	private static long unsignedMultiplyHigh(long a, long b) {
+		return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+	}
+
+	/**
+	 * Counts how many times the number is divisible by five.
+	 * 
+	 * @param value
+	 *            Positive number.
+	 * @return Exponent of five in the number.
+	 */
+	private static int pow5Factor(long value) {
+		int count = 0;
+		while (value % 5 == 0) {
+			value /= 5;
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Computes the number of bits of 5^e.
+	 * 
+	 * @param e
+	 *            Exponent between 0 and 3528.
+	 * @return Number of bits of 5^e.
+	 */
+	private static int pow5Bits(int e) {
+		return ((e * 1217359) >>> 19) + 1;
+	}
+
+	/**
+	 * Computes floor(log10(2^e)).
+	 * 
+	 * @param e
+	 *            Exponent between 0 and 1650.
+	 * @return Decimal logarithm of 2^e, rounded down.
+	 */
+	private static int log10Pow2(int e) {
+		return (e * 78913) >>> 18;
+	}
+
+	/**
+	 * Computes floor(log10(5^e)).
+	 * 
+	 * @param e
+	 *            Exponent between 0 and 2620.
+	 * @return Decimal logarithm of 5^e, rounded down.
+	 */
+	private static int log10Pow5(int e) {
+		return (e * 732923) >>> 20;
+	}
+
+	/**
+	 * Computes the number of decimal digits of the positive number.
+	 * 
+	 * @param value
+	 *            Positive number.
+	 * @return Number of decimal digits.
+	 */
+	private static int decimalLength(long value) {
+		int length = 1;
+		while (value >= 10) {
+			value /= 10;
+			length++;
+		}
+		return length;
+	}
+}
@@ -0,0 +1,725 @@
+package hr.fer.zemris.java.gui.calc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EmptyStackException;
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * Class that represents a headless runner which replays the recorded key
+ * presses of the calculator on a {@link CalcModelImpl}. Each key does the same
+ * thing as the calculator button with the same label, but the errors which the
+ * buttons show in dialogs are recorded in the {@link Result} instead. The keys
+ * without buttons work directly on the model's {@link DoubleStack}. A script
+ * is a text file with the key labels separated by whitespace, where the text
+ * from '#' to the end of the line is a comment. Scripts are read through a
+ * file channel and parsed into an array of keys before they are replayed, so
+ * the replay itself does no parsing.
+ * 
+ * @author Dinz
+ *
+ */
+public class CalcScriptRunner {
+
+	/**
+	 * Size of the buffer used for reading the scripts.
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Maximum number of error messages kept in the result.
+	 */
+	private static final int MAX_MESSAGES = 10;
+
+	/**
+	 * Enumeration of the calculator keys.
+	 * 
+	 * @author Dinz
+	 *
+	 */
+	public enum Key {
+		/**
+		 * Digit 0.
+		 */
+		DIGIT_0("0"),
+		/**
+		 * Digit 1.
+		 */
+		DIGIT_1("1"),
+		/**
+		 * Digit 2.
+		 */
+		DIGIT_2("2"),
+		/**
+		 * Digit 3.
+		 */
+		DIGIT_3("3"),
+		/**
+		 * Digit 4.
+		 */
+		DIGIT_4("4"),
+		/**
+		 * Digit 5.
+		 */
+		DIGIT_5("5"),
+		/**
+		 * Digit 6.
+		 */
+		DIGIT_6("6"),
+		/**
+		 * Digit 7.
+		 */
+		DIGIT_7("7"),
+		/**
+		 * Digit 8.
+		 */
+		DIGIT_8("8"),
+		/**
+		 * Digit 9.
+		 */
+		DIGIT_9("9"),
+		/**
+		 * Decimal point.
+		 */
+		POINT("."),
+		/**
+		 * Sign change.
+		 */
+		SWAP_SIGN("+/-"),
+		/**
+		 * Reciprocal value.
+		 */
+		RECIPROCAL("1/x"),
+		/**
+		 * Addition.
+		 */
+		ADD("+"),
+		/**
+		 * Subtraction.
+		 */
+		SUBTRACT("-"),
+		/**
+		 * Multiplication.
+		 */
+		MULTIPLY("*"),
+		/**
+		 * Division.
+		 */
+		DIVIDE("/"),
+		/**
+		 * Result of the pending operation.
+		 */
+		EQUALS("="),
+		/**
+		 * Sine, or arcsine when inverted.
+		 */
+		SIN("sin"),
+		/**
+		 * Cosine, or arccosine when inverted.
+		 */
+		COS("cos"),
+		/**
+		 * Tangent, or arctangent when inverted.
+		 */
+		TAN("tan"),
+		/**
+		 * Cotangent, or arccotangent when inverted.
+		 */
+		CTG("ctg"),
+		/**
+		 * Decimal logarithm, or power of ten when inverted.
+		 */
+		LOG("log"),
+		/**
+		 * Natural logarithm, or power of e when inverted.
+		 */
+		LN("ln"),
+		/**
+		 * Power, or root when inverted.
+		 */
+		POWER("x^n"),
+		/**
+		 * Inversion of the switchable operations.
+		 */
+		INV("inv"),
+		/**
+		 * Clearing of the entered number.
+		 */
+		CLEAR("clr"),
+		/**
+		 * Reset of the calculator.
+		 */
+		RESET("res"),
+		/**
+		 * Pushing the number to the stack.
+		 */
+		PUSH("push"),
+		/**
+		 * Popping the number from the stack.
+		 */
+		POP("pop"),
+		/**
+		 * Duplication of the value at the top of the stack.
+		 */
+		DUP("dup"),
+		/**
+		 * Swapping of the two values at the top of the stack.
+		 */
+		SWAP("swap"),
+		/**
+		 * Rotation of the three values at the top of the stack.
+		 */
+		ROT("rot"),
+		/**
+		 * Removal of the value at the top of the stack.
+		 */
+		DROP("drop"),
+		/**
+		 * Replacing the values on the stack by their sum.
+		 */
+		SUM("sum"),
+		/**
+		 * Replacing the values on the stack by their product.
+		 */
+		PRODUCT("prod");
+
+		/**
+		 * All the keys.
+		 */
+		private static final Key[] KEYS = values();
+
+		/**
+		 * Label of the key, which is the same as the label of its button.
+		 */
+		private final String label;
+
+		/**
+		 * Label of the key in bytes.
+		 */
+		private final byte[] bytes;
+
+		/**
+		 * Constructs a new key.
+		 * 
+		 * @param label
+		 *            Label of the key.
+		 */
+		Key(String label) {
+			this.label = label;
+			this.bytes = label.getBytes(StandardCharsets.US_ASCII);
+		}
+
+		/**
+		 * Gets the label of the key.
+		 * 
+		 * @return Label of the key.
+		 */
+		public String getLabel() {
+			return label;
+		}
+
+		/**
+		 * Finds the key with the given label.
+		 * 
+		 * @param label
+		 *            Label of the key.
+		 * @return Key with the label.
+		 * @throws IllegalArgumentException
+		 *             If there is no key with the label.
+		 */
+		public static Key forLabel(String label) {
+			byte[] bytes = label.getBytes(StandardCharsets.US_ASCII);
+			Key key = find(bytes, bytes.length);
+			if (key == null) {
+				throw new IllegalArgumentException("Unknown key: " + label);
+			}
+			return key;
+		}
+
+		/**
+		 * Finds the key whose label consists of the given bytes.
+		 * 
+		 * @param token
+		 *            Buffer with the bytes of the label.
+		 * @param length
+		 *            Number of the bytes of the label.
+		 * @return Key with the label, or null if there is none.
+		 */
+		private static Key find(byte[] token, int length) {
+			for (Key key : KEYS) {
+				byte[] bytes = key.bytes;
+				if (bytes.length != length) {
+					continue;
+				}
+				int i = 0;
+				while (i < length && bytes[i] == token[i]) {
+					i++;
+				}
+				if (i == length) {
+					return key;
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Class that represents the result of a replayed script.
+	 * 
+	 * @author Dinz
+	 *
+	 */
+	public static class Result {
+
+		/**
+		 * Number of replayed keys.
+		 */
+		private final int keys;
+
+		/**
+		 * Text shown by the calculator after the replay.
+		 */
+		private final String display;
+
+		/**
+		 * Value of the calculator after the replay.
+		 */
+		private final double value;
+
+		/**
+		 * Number of errors.
+		 */
+		private final int errors;
+
+		/**
+		 * Messages of the first errors.
+		 */
+		private final List<String> messages;
+
+		/**
+		 * Duration of the replay in nanoseconds.
+		 */
+		private final long nanos;
+
+		/**
+		 * Constructs a new result.
+		 * 
+		 * @param keys
+		 *            Number of replayed keys.
+		 * @param display
+		 *            Text shown by the calculator after the replay.
+		 * @param value
+		 *            Value of the calculator after the replay.
+		 * @param errors
+		 *            Number of errors.
+		 * @param messages
+		 *            Messages of the first errors.
+		 * @param nanos
+		 *            Duration of the replay in nanoseconds.
+		 */
+		Result(int keys, String display, double value, int errors, List<String> messages, long nanos) {
+			this.keys = keys;
+			this.display = display;
+			this.value = value;
+			this.errors = errors;
+			this.messages = Collections.unmodifiableList(messages);
+			this.nanos = nanos;
+		}
+
+		/**
+		 * Gets the number of replayed keys.
+		 * 
+		 * @return Number of replayed keys.
+		 */
+		public int getKeys() {
+			return keys;
+		}
+
+		/**
+		 * Gets the text shown by the calculator after the replay.
+		 * 
+		 * @return Shown text.
+		 */
+		public String getDisplay() {
+			return display;
+		}
+
+		/**
+		 * Gets the value of the calculator after the replay.
+		 * 
+		 * @return Value of the calculator.
+		 */
+		public double getValue() {
+			return value;
+		}
+
+		/**
+		 * Gets the number of errors which happened during the replay.
+		 * 
+		 * @return Number of errors.
+		 */
+		public int getErrors() {
+			return errors;
+		}
+
+		/**
+		 * Gets the messages of the first errors, each with the index of the key
+		 * which caused it.
+		 * 
+		 * @return Messages of the errors.
+		 */
+		public List<String> getMessages() {
+			return messages;
+		}
+
+		/**
+		 * Gets the duration of the replay.
+		 * 
+		 * @return Duration of the replay in nanoseconds.
+		 */
+		public long getNanos() {
+			return nanos;
+		}
+	}
+
+	/**
+	 * Calculator model on which the keys are replayed.
+	 */
+	private final CalcModelImpl model = new CalcModelImpl();
+
+	/**
+	 * Checks if the switchable operations are inverted.
+	 */
+	private boolean inverted;
+
+	/**
+	 * Number of errors.
+	 */
+	private int errors;
+
+	/**
+	 * Messages of the first errors.
+	 */
+	private final List<String> messages = new ArrayList<>();
+
+	/**
+	 * Index of the key which is currently replayed.
+	 */
+	private int position;
+
+	/**
+	 * Main method that replays the scripts given as arguments and prints the
+	 * result and the timing of each of them.
+	 * 
+	 * @param args
+	 *            Paths to the scripts.
+	 */
+	public static void main(String[] args) {
+		if (args.length == 0) {
+			System.err.println("Usage: CalcScriptRunner SCRIPT...");
+			return;
+		}
+		for (String arg : args) {
+			Path script = Paths.get(arg);
+			try {
+				long start = System.nanoTime();
+				Key[] keys = parse(script);
+				long parsed = System.nanoTime() - start;
+				Result result = new CalcScriptRunner().replay(keys);
+				System.out.printf("%s: %d keys, result %s, %d errors, parsed in %.3f ms, replayed in %.3f ms "
+						+ "(%.1f M keys/s)%n", script, result.getKeys(), result.getDisplay(), result.getErrors(),
+						parsed / 1e6, result.getNanos() / 1e6, result.getKeys() * 1e3 / Math.max(1, result.getNanos()));
+				for (String message : result.getMessages()) {
+					System.out.println("  " + message);
+				}
+			} catch (IOException | IllegalArgumentException ex) {
+				System.err.println("Could not run " + script + ": " + ex.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Reads and parses the script from the given file.
+	 * 
+	 * @param script
+	 *            Path to the script.
+	 * @return Keys of the script.
+	 * @throws IOException
+	 *             If the script could not be read.
+	 * @throws IllegalArgumentException
+	 *             If the script contains an unknown key.
+	 */
+	public static Key[] parse(Path script) throws IOException {
+		try (FileChannel channel = FileChannel.open(script, StandardOpenOption.READ)) {
+			return parse(channel);
+		}
+	}
+
+	/**
+	 * Reads and parses the script from the given channel. The bytes are read
+	 * into a buffer in large blocks and the labels are matched directly on the
+	 * bytes, without creating strings.
+	 * 
+	 * @param channel
+	 *            Channel with the script.
+	 * @return Keys of the script.
+	 * @throws IOException
+	 *             If the script could not be read.
+	 * @throws IllegalArgumentException
+	 *             If the script contains an unknown key.
+	 */
+	static Key[] parse(ReadableByteChannel channel) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		byte[] bytes = buffer.array();
+		byte[] token = new byte[8];
+		int length = 0;
+		boolean comment = false;
+		Key[] keys = new Key[1024];
+		int count = 0;
+
+		while (true) {
+			buffer.clear();
+			boolean end = channel.read(buffer) < 0;
+			if (end) {
+				buffer.put((byte) '\n');
+			}
+			buffer.flip();
+			for (int i = 0, limit = buffer.limit(); i < limit; i++) {
+				byte b = bytes[i];
+				if (comment) {
+					comment = b != '\n';
+				} else if (b == '#' || b == ' ' || b == '\t' || b == '\n' || b == '\r') {
+					comment = b == '#';
+					if (length > 0) {
+						Key key = Key.find(token, length);
+						if (key == null) {
+							throw new IllegalArgumentException(
+									"Unknown key: " + new String(token, 0, length, StandardCharsets.US_ASCII));
+						}
+						if (count == keys.length) {
+							keys = Arrays.copyOf(keys, count * 2);
+						}
+						keys[count++] = key;
+						length = 0;
+					}
+				} else {
+					if (length == token.length) {
+						token = Arrays.copyOf(token, length * 2);
+					}
+					token[length++] = b;
+				}
+			}
+			if (end) {
+				return Arrays.copyOf(keys, count);
+			}
+		}
+	}
+
+	/**
+	 * Replays the keys and measures the time needed for it.
+	 * 
+	 * @param keys
+	 *            Keys to be replayed.
+	 * @return Result of the replay.
+	 */
+	public Result replay(Key[] keys) {
+		long start = System.nanoTime();
+		for (int i = 0; i < keys.length; i++) {
+			position = i;
+			press(keys[i]);
+		}
+		long nanos = System.nanoTime() - start;
+		return new Result(keys.length, model.toString(), model.getValue(), errors, new ArrayList<>(messages), nanos);
+	}
+
+	/**
+	 * Replays a single key.
+	 * 
+	 * @param key
+	 *            Key to be replayed.
+	 */
+	public void press(Key key) {
+		switch (key) {
+		case DIGIT_0:
+		case DIGIT_1:
+		case DIGIT_2:
+		case DIGIT_3:
+		case DIGIT_4:
+		case DIGIT_5:
+		case DIGIT_6:
+		case DIGIT_7:
+		case DIGIT_8:
+		case DIGIT_9:
+			model.insertDigit(key.ordinal() - Key.DIGIT_0.ordinal());
+			break;
+		case POINT:
+			model.insertDecimalPoint();
+			break;
+		case SWAP_SIGN:
+			model.swapSign();
+			break;
+		case RECIPROCAL:
+			apply(Math.pow(model.getValue(), -1));
+			break;
+		case ADD:
+			binary(Operators.ADD);
+			break;
+		case SUBTRACT:
+			binary(Operators.SUBTRACT);
+			break;
+		case MULTIPLY:
+			binary(Operators.MULTIPLY);
+			break;
+		case DIVIDE:
+			binary(Operators.DIVIDE);
+			break;
+		case EQUALS:
+			if (model.isActiveOperandSet()) {
+				apply(model.getPendingBinaryOperation().applyAsDouble(model.getActiveOperand(), model.getValue()));
+				model.clearActiveOperand();
+				model.setPendingBinaryOperation(null);
+			}
+			break;
+		case SIN:
+			apply(inverted ? Math.asin(model.getValue()) : Math.sin(model.getValue()));
+			break;
+		case COS:
+			apply(inverted ? Math.acos(model.getValue()) : Math.cos(model.getValue()));
+			break;
+		case TAN:
+			apply(inverted ? Math.atan(model.getValue()) : Math.tan(model.getValue()));
+			break;
+		case CTG:
+			apply(inverted ? Math.PI / 2 - Math.atan(model.getValue()) : Math.pow(Math.tan(model.getValue()), -1));
+			break;
+		case LOG:
+			apply(inverted ? Math.pow(10, model.getValue()) : Math.log10(model.getValue()));
+			break;
+		case LN:
+			apply(inverted ? Math.pow(Math.E, model.getValue()) : Math.log(model.getValue()));
+			break;
+		case POWER:
+			binary(inverted ? Operators.ROOT : Operators.POWER);
+			break;
+		case INV:
+			inverted = !inverted;
+			break;
+		case CLEAR:
+			model.clear();
+			break;
+		case RESET:
+			model.clearAll();
+			break;
+		case PUSH:
+			model.push(model.getValue());
+			model.setValue(0);
+			break;
+		default:
+			stack(key);
+			break;
+		}
+	}
+
+	/**
+	 * Replays a key which works on the stack of the model.
+	 * 
+	 * @param key
+	 *            Key to be replayed.
+	 */
+	private void stack(Key key) {
+		DoubleStack stack = model.getStack();
+		try {
+			switch (key) {
+			case POP:
+				model.setValue(stack.pop());
+				break;
+			case DUP:
+				stack.dup();
+				break;
+			case SWAP:
+				stack.swap();
+				break;
+			case ROT:
+				stack.rot();
+				break;
+			case DROP:
+				stack.drop();
+				break;
+			case SUM:
+				stack.sumAll();
+				break;
+			default:
+				stack.productAll();
+				break;
+			}
+		} catch (EmptyStackException ex) {
+			error("Stack is empty.");
+		}
+	}
+
+	/**
+	 * Gets the calculator model on which the keys are replayed.
+	 * 
+	 * @return Calculator model.
+	 */
+	public CalcModelImpl getModel() {
+		return model;
+	}
+
+	/**
+	 * Applies the pending binary operation, if there is one, and sets the given
+	 * operation as the pending one, the same way as the binary operation
+	 * buttons do.
+	 * 
+	 * @param operator
+	 *            Binary operator of the pressed key.
+	 */
+	private void binary(DoubleBinaryOperator operator) {
+		if (model.getPendingBinaryOperation() != null) {
+			apply(model.getPendingBinaryOperation().applyAsDouble(model.getActiveOperand(), model.getValue()));
+		}
+		model.setActiveOperand(model.getValue());
+		model.setPendingBinaryOperation(operator);
+		model.setValue(0);
+	}
+
+	/**
+	 * Sets the result of an operation as the value of the calculator. If the
+	 * result is not a finite number, which the model would reject, the error is
+	 * recorded and the value stays the same. The result is checked in advance,
+	 * so the replay does not pay for the exception.
+	 * 
+	 * @param result
+	 *            Result of the operation.
+	 */
+	private void apply(double result) {
+		if (Double.isFinite(result)) {
+			model.setValue(result);
+		} else {
+			error("Result is NaN.");
+		}
+	}
+
+	/**
+	 * Records the error caused by the current key.
+	 * 
+	 * @param message
+	 *            Message of the error.
+	 */
+	private void error(String message) {
+		errors++;
+		if (messages.size() < MAX_MESSAGES) {
+			messages.add("Key " + position + ": " + message);
+		}
+	}
+}
@@ -3,7 +3,6 @@ package hr.fer.zemris.java.gui.calc;
 import java.awt.Color;
 import java.awt.Container;
 import java.awt.Dimension;
-import java.util.function.DoubleBinaryOperator;
 
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
@@ -13,6 +12,7 @@ import javax.swing.JOptionPane;
 import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
 import javax.swing.WindowConstants;
+
 import hr.fer.zemris.java.gui.layouts.CalcLayout;
 
 import hr.fer.zemris.java.gui.layouts.RCPosition;
@@ -421,7 +421,7 @@ public class Calculator extends JFrame {
 						}
 					}
 					model.setActiveOperand(model.getValue());
-					model.setPendingBinaryOperation(new Power());
+					model.setPendingBinaryOperation(Operators.POWER);
 					model.setValue(0);
 				} else {
 					if (model.getPendingBinaryOperation() != null) {
@@ -434,7 +434,7 @@ public class Calculator extends JFrame {
 						}
 					}
 					model.setActiveOperand(model.getValue());
-					model.setPendingBinaryOperation(new Root());
+					model.setPendingBinaryOperation(Operators.ROOT);
 					model.setValue(0);
 				}
 			});
@@ -443,40 +443,4 @@ public class Calculator extends JFrame {
 
 	}
 
-	/**
-	 * Class that represents a double binary operator for the basic power operation.
-	 * 
-	 * @author Dinz
-	 *
-	 */
-	public static class Power implements DoubleBinaryOperator {
-
-		/**
-		 * Method that applies the power operation on two given operands.
-		 */
-		@Override
-		public double applyAsDouble(double left, double right) {
-			return Math.pow(left, right);
-		}
-
-	}
-
-	/**
-	 * Class that represents a double binary operator for the rooting operation.
-	 * 
-	 * @author Dinz
-	 *
-	 */
-	public static class Root implements DoubleBinaryOperator {
-
-		/**
-		 * Method that applies the rooting operation on two given operands.
-		 */
-		@Override
-		public double applyAsDouble(double left, double right) {
-			return Math.pow(left, -1 * right);
-		}
-
-	}
-
 }
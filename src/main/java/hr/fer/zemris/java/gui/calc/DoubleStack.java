@@ -0,0 +1,209 @@
+package hr.fer.zemris.java.gui.calc;
+
+import java.util.Arrays;
+import java.util.EmptyStackException;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * Class that represents a stack of double values for the calculations in the
+ * reverse Polish notation. The values are kept unboxed in a growable array, so
+ * no operation allocates anything unless the array has to grow, and the stack
+ * is not synchronized. Besides pushing and popping, it offers the usual stack
+ * manipulations and the operations which are applied straight on the values
+ * at the top of the stack. An operation which needs more values than there
+ * are on the stack throws the {@link EmptyStackException} and leaves the
+ * stack unchanged.
+ * 
+ * @author Dinz
+ *
+ */
+public class DoubleStack {
+
+	/**
+	 * Initial capacity of the stack.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Values on the stack, with the top at the index {@link #size} - 1.
+	 */
+	private double[] values = new double[INITIAL_CAPACITY];
+
+	/**
+	 * Number of values on the stack.
+	 */
+	private int size;
+
+	/**
+	 * Pushes the value to the top of the stack.
+	 * 
+	 * @param value
+	 *            Value to be pushed.
+	 */
+	public void push(double value) {
+		if (size == values.length) {
+			values = Arrays.copyOf(values, size * 2);
+		}
+		values[size++] = value;
+	}
+
+	/**
+	 * Removes the value from the top of the stack and returns it.
+	 * 
+	 * @return Removed value.
+	 * @throws EmptyStackException
+	 *             If the stack is empty.
+	 */
+	public double pop() {
+		require(1);
+		return values[--size];
+	}
+
+	/**
+	 * Returns the value at the top of the stack without removing it.
+	 * 
+	 * @return Value at the top of the stack.
+	 * @throws EmptyStackException
+	 *             If the stack is empty.
+	 */
+	public double peek() {
+		require(1);
+		return values[size - 1];
+	}
+
+	/**
+	 * Removes the value from the top of the stack.
+	 * 
+	 * @throws EmptyStackException
+	 *             If the stack is empty.
+	 */
+	public void drop() {
+		require(1);
+		size--;
+	}
+
+	/**
+	 * Pushes the copy of the value at the top of the stack.
+	 * 
+	 * @throws EmptyStackException
+	 *             If the stack is empty.
+	 */
+	public void dup() {
+		push(peek());
+	}
+
+	/**
+	 * Swaps the two values at the top of the stack.
+	 * 
+	 * @throws EmptyStackException
+	 *             If there are fewer than two values on the stack.
+	 */
+	public void swap() {
+		require(2);
+		double top = values[size - 1];
+		values[size - 1] = values[size - 2];
+		values[size - 2] = top;
+	}
+
+	/**
+	 * Rotates the three values at the top of the stack, so the third value from
+	 * the top comes to the top and the other two move down.
+	 * 
+	 * @throws EmptyStackException
+	 *             If there are fewer than three values on the stack.
+	 */
+	public void rot() {
+		require(3);
+		double third = values[size - 3];
+		values[size - 3] = values[size - 2];
+		values[size - 2] = values[size - 1];
+		values[size - 1] = third;
+	}
+
+	/**
+	 * Replaces the two values at the top of the stack by the result of the
+	 * operator. The value below the top is the left operand and the value at
+	 * the top is the right one.
+	 * 
+	 * @param operator
+	 *            Binary operator, for example the one of a calculator button.
+	 * @throws EmptyStackException
+	 *             If there are fewer than two values on the stack.
+	 */
+	public void apply(DoubleBinaryOperator operator) {
+		require(2);
+		size--;
+		values[size - 1] = operator.applyAsDouble(values[size - 1], values[size]);
+	}
+
+	/**
+	 * Replaces all the values on the stack by their sum.
+	 * 
+	 * @throws EmptyStackException
+	 *             If the stack is empty.
+	 */
+	public void sumAll() {
+		require(1);
+		double sum = 0;
+		for (int i = 0; i < size; i++) {
+			sum += values[i];
+		}
+		values[0] = sum;
+		size = 1;
+	}
+
+	/**
+	 * Replaces all the values on the stack by their product.
+	 * 
+	 * @throws EmptyStackException
+	 *             If the stack is empty.
+	 */
+	public void productAll() {
+		require(1);
+		double product = 1;
+		for (int i = 0; i < size; i++) {
+			product *= values[i];
+		}
+		values[0] = product;
+		size = 1;
+	}
+
+	/**
+	 * Gets the number of values on the stack.
+	 * 
+	 * @return Number of values.
+	 */
+	public int depth() {
+		return size;
+	}
+
+	/**
+	 * Checks if the stack is empty.
+	 * 
+	 * @return True if there are no values on the stack, false otherwise.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all the values from the stack.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Checks that there are at least the given number of values on the stack.
+	 * 
+	 * @param count
+	 *            Number of needed values.
+	 * @throws EmptyStackException
+	 *             If there are fewer values on the stack.
+	 */
+	private void require(int count) {
+		if (size < count) {
+			throw new EmptyStackException();
+		}
+	}
+}
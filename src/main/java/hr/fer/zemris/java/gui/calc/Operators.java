@@ -0,0 +1,145 @@
+package hr.fer.zemris.java.gui.calc;
+
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * Class that holds the double binary operators of the calculator. They are
+ * kept apart from the graphical interface, so the script runner and the
+ * expression parser can use them without loading it, and the buttons only
+ * delegate to the shared instances.
+ * 
+ * @author Dinz
+ *
+ */
+public final class Operators {
+
+	/**
+	 * Addition operator.
+	 */
+	public static final DoubleBinaryOperator ADD = Double::sum;
+
+	/**
+	 * Subtraction operator.
+	 */
+	public static final DoubleBinaryOperator SUBTRACT = new Subtract();
+
+	/**
+	 * Multiplication operator.
+	 */
+	public static final DoubleBinaryOperator MULTIPLY = new Multiply();
+
+	/**
+	 * Division operator.
+	 */
+	public static final DoubleBinaryOperator DIVIDE = new Divide();
+
+	/**
+	 * Power operator.
+	 */
+	public static final DoubleBinaryOperator POWER = new Power();
+
+	/**
+	 * Root operator.
+	 */
+	public static final DoubleBinaryOperator ROOT = new Root();
+
+	/**
+	 * Disables the construction of the class.
+	 */
+	private Operators() {
+	}
+
+	/**
+	 * Class that represents a double binary operator for the basic power operation.
+	 * 
+	 * @author Dinz
+	 *
+	 */
+	public static class Power implements DoubleBinaryOperator {
+
+		/**
+		 * Method that applies the power operation on two given operands.
+		 */
+		@Override
+		public double applyAsDouble(double left, double right) {
+			return Math.pow(left, right);
+		}
+
+	}
+
+	/**
+	 * Class that represents a double binary operator for the rooting operation.
+	 * 
+	 * @author Dinz
+	 *
+	 */
+	public static class Root implements DoubleBinaryOperator {
+
+		/**
+		 * Method that applies the rooting operation on two given operands.
+		 */
+		@Override
+		public double applyAsDouble(double left, double right) {
+			return Math.pow(left, -1 * right);
+		}
+
+	}
+
+	/**
+	 * Class that represents a divide double binary operator which is used for
+	 * division in a calculator.
+	 * 
+	 * @author Dinz
+	 *
+	 */
+	public static class Divide implements DoubleBinaryOperator {
+
+		/**
+		 * Applies the division operation on two operands.
+		 */
+		@Override
+		public double applyAsDouble(double left, double right) {
+			return left / right;
+		}
+
+	}
+
+	/**
+	 * Class that represents a subtract double binary operator which is used for
+	 * subtraction in a calculator.
+	 * 
+	 * @author Dinz
+	 *
+	 */
+	public static class Subtract implements DoubleBinaryOperator {
+
+		/**
+		 * Applies the subtraction operation on two operands.
+		 */
+		@Override
+		public double applyAsDouble(double left, double right) {
+			return left - right;
+		}
+
+	}
+
+	/**
+	 * Class that represents a multiply double binary operator which is used for
+	 * subtraction in a calculator.
+	 * 
+	 * @author Dinz
+	 *
+	 */
+	public static class Multiply implements DoubleBinaryOperator {
+
+		/**
+		 * Applies the multiplication operation on two operands.
+		 */
+		@Override
+		public double applyAsDouble(double left, double right) {
+			return left * right;
+		}
+
+	}
+
+}
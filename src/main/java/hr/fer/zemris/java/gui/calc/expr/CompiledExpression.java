@@ -0,0 +1,228 @@
+package hr.fer.zemris.java.gui.calc.expr;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Class that represents a compiled expression. The expression is kept as a
+ * flat array of stack machine instructions in the postfix order, and it is
+ * evaluated on a stack which is allocated once, when the expression is
+ * compiled, so the evaluation itself does not allocate anything. Because of
+ * the shared stack, one compiled expression must not be evaluated from several
+ * threads at once; each thread should use its own {@link #copy()}.
+ * 
+ * @author Dinz
+ *
+ */
+public class CompiledExpression {
+
+	/**
+	 * Operation code of the instruction which pushes a constant.
+	 */
+	static final int CONSTANT = 0;
+
+	/**
+	 * Operation code of the instruction which pushes the value of a variable.
+	 */
+	static final int VARIABLE = 1;
+
+	/**
+	 * Operation code of the instruction which applies a unary operator.
+	 */
+	static final int UNARY = 2;
+
+	/**
+	 * Operation code of the instruction which applies a binary operator.
+	 */
+	static final int BINARY = 3;
+
+	/**
+	 * Operation code of the instruction which adds two values.
+	 */
+	static final int ADD = 4;
+
+	/**
+	 * Operation code of the instruction which subtracts two values.
+	 */
+	static final int SUBTRACT = 5;
+
+	/**
+	 * Operation code of the instruction which multiplies two values.
+	 */
+	static final int MULTIPLY = 6;
+
+	/**
+	 * Operation code of the instruction which divides two values.
+	 */
+	static final int DIVIDE = 7;
+
+	/**
+	 * Operation codes of the instructions.
+	 */
+	private final int[] opcodes;
+
+	/**
+	 * Operands of the instructions, which are indices of the constants, the
+	 * variables or the operators.
+	 */
+	private final int[] operands;
+
+	/**
+	 * Constants used by the instructions.
+	 */
+	private final double[] constants;
+
+	/**
+	 * Unary operators used by the instructions.
+	 */
+	private final DoubleUnaryOperator[] unaryOperators;
+
+	/**
+	 * Binary operators used by the instructions.
+	 */
+	private final DoubleBinaryOperator[] binaryOperators;
+
+	/**
+	 * Number of variables of the expression.
+	 */
+	private final int variableCount;
+
+	/**
+	 * Evaluation stack.
+	 */
+	private final double[] stack;
+
+	/**
+	 * Constructs a new compiled expression.
+	 * 
+	 * @param opcodes
+	 *            Operation codes of the instructions.
+	 * @param operands
+	 *            Operands of the instructions.
+	 * @param constants
+	 *            Constants used by the instructions.
+	 * @param unaryOperators
+	 *            Unary operators used by the instructions.
+	 * @param binaryOperators
+	 *            Binary operators used by the instructions.
+	 * @param variableCount
+	 *            Number of variables of the expression.
+	 * @param stackSize
+	 *            Maximum depth of the evaluation stack.
+	 */
+	CompiledExpression(int[] opcodes, int[] operands, double[] constants, DoubleUnaryOperator[] unaryOperators,
+			DoubleBinaryOperator[] binaryOperators, int variableCount, int stackSize) {
+		this.opcodes = opcodes;
+		this.operands = operands;
+		this.constants = constants;
+		this.unaryOperators = unaryOperators;
+		this.binaryOperators = binaryOperators;
+		this.variableCount = variableCount;
+		this.stack = new double[stackSize];
+	}
+
+	/**
+	 * Parses, folds and compiles the given expression. The expression can use
+	 * the numbers, the given variables, the constants pi and e, the operators
+	 * +, -, *, / and ^, parentheses and the functions sin, cos, tan, ctg, asin,
+	 * acos, atan, actg, log, ln, exp, sqrt and abs.
+	 * 
+	 * @param expression
+	 *            Expression to be compiled.
+	 * @param variables
+	 *            Names of the variables, in the order of their values given to
+	 *            {@link #evaluate(double...)}.
+	 * @return Compiled expression.
+	 * @throws ExpressionException
+	 *             If the expression is not valid.
+	 */
+	public static CompiledExpression compile(String expression, String... variables) {
+		ExpressionNode root = new ExpressionParser(expression, variables).parse();
+		return ExpressionCompiler.compile(root.fold(), variables.length);
+	}
+
+	/**
+	 * Evaluates the expression for the given values of the variables. The
+	 * method allocates nothing, so the callers which evaluate the expression
+	 * many times should reuse the array of the values.
+	 * 
+	 * @param values
+	 *            Values of the variables, in the order given to
+	 *            {@link #compile(String, String...)}.
+	 * @return Value of the expression.
+	 * @throws IllegalArgumentException
+	 *             If there are fewer values than variables.
+	 */
+	public double evaluate(double... values) {
+		if (values.length < variableCount) {
+			throw new IllegalArgumentException(
+					"Expected " + variableCount + " values, but got " + values.length + ".");
+		}
+		double[] stack = this.stack;
+		int top = -1;
+		for (int i = 0; i < opcodes.length; i++) {
+			int operand = operands[i];
+			switch (opcodes[i]) {
+			case CONSTANT:
+				stack[++top] = constants[operand];
+				break;
+			case VARIABLE:
+				stack[++top] = values[operand];
+				break;
+			case UNARY:
+				stack[top] = unaryOperators[operand].applyAsDouble(stack[top]);
+				break;
+			case BINARY:
+				top--;
+				stack[top] = binaryOperators[operand].applyAsDouble(stack[top], stack[top + 1]);
+				break;
+			case ADD:
+				top--;
+				stack[top] += stack[top + 1];
+				break;
+			case SUBTRACT:
+				top--;
+				stack[top] -= stack[top + 1];
+				break;
+			case MULTIPLY:
+				top--;
+				stack[top] *= stack[top + 1];
+				break;
+			default:
+				top--;
+				stack[top] /= stack[top + 1];
+				break;
+			}
+		}
+		return stack[0];
+	}
+
+	/**
+	 * Gets the number of variables of the expression.
+	 * 
+	 * @return Number of variables.
+	 */
+	public int getVariableCount() {
+		return variableCount;
+	}
+
+	/**
+	 * Gets the number of instructions of the expression.
+	 * 
+	 * @return Number of instructions.
+	 */
+	public int getInstructionCount() {
+		return opcodes.length;
+	}
+
+	/**
+	 * Creates a copy of this expression which shares the instructions, but has
+	 * its own evaluation stack, so it can be evaluated on another thread.
+	 * 
+	 * @return Copy of the expression.
+	 */
+	public CompiledExpression copy() {
+		return new CompiledExpression(opcodes, operands, constants, unaryOperators, binaryOperators, variableCount,
+				stack.length);
+	}
+}
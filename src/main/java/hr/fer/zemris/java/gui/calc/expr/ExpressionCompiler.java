@@ -0,0 +1,193 @@
+package hr.fer.zemris.java.gui.calc.expr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+import hr.fer.zemris.java.gui.calc.Operators;
+
+/**
+ * Class that represents a compiler which collects the instructions emitted by
+ * the nodes of an expression and builds a {@link CompiledExpression} from them.
+ * While the instructions are emitted, the compiler tracks the depth of the
+ * evaluation stack, so the compiled expression can allocate the stack of the
+ * exact size in advance. The four basic arithmetic operators get their own
+ * operation codes, so evaluating them does not go through the operator call.
+ * 
+ * @author Dinz
+ *
+ */
+class ExpressionCompiler {
+
+	/**
+	 * Operation codes of the emitted instructions.
+	 */
+	private int[] opcodes = new int[16];
+
+	/**
+	 * Operands of the emitted instructions.
+	 */
+	private int[] operands = new int[16];
+
+	/**
+	 * Number of emitted instructions.
+	 */
+	private int length;
+
+	/**
+	 * Constants used by the instructions.
+	 */
+	private double[] constants = new double[8];
+
+	/**
+	 * Number of used constants.
+	 */
+	private int constantCount;
+
+	/**
+	 * Unary operators used by the instructions.
+	 */
+	private final List<DoubleUnaryOperator> unaryOperators = new ArrayList<>();
+
+	/**
+	 * Binary operators used by the instructions.
+	 */
+	private final List<DoubleBinaryOperator> binaryOperators = new ArrayList<>();
+
+	/**
+	 * Current depth of the evaluation stack.
+	 */
+	private int depth;
+
+	/**
+	 * Maximum depth of the evaluation stack.
+	 */
+	private int maxDepth;
+
+	/**
+	 * Compiles the given expression tree.
+	 * 
+	 * @param root
+	 *            Root of the expression tree.
+	 * @param variableCount
+	 *            Number of variables of the expression.
+	 * @return Compiled expression.
+	 */
+	static CompiledExpression compile(ExpressionNode root, int variableCount) {
+		ExpressionCompiler compiler = new ExpressionCompiler();
+		root.compile(compiler);
+		return compiler.build(variableCount);
+	}
+
+	/**
+	 * Emits the instruction which pushes the constant.
+	 * 
+	 * @param value
+	 *            Value of the constant.
+	 */
+	void constant(double value) {
+		if (constantCount == constants.length) {
+			constants = Arrays.copyOf(constants, constantCount * 2);
+		}
+		constants[constantCount] = value;
+		emit(CompiledExpression.CONSTANT, constantCount++, 1);
+	}
+
+	/**
+	 * Emits the instruction which pushes the value of the variable.
+	 * 
+	 * @param index
+	 *            Index of the variable.
+	 */
+	void variable(int index) {
+		emit(CompiledExpression.VARIABLE, index, 1);
+	}
+
+	/**
+	 * Emits the instruction which replaces the top of the stack by the result
+	 * of the unary operator.
+	 * 
+	 * @param operator
+	 *            Unary operator.
+	 */
+	void unary(DoubleUnaryOperator operator) {
+		emit(CompiledExpression.UNARY, indexOf(unaryOperators, operator), 0);
+	}
+
+	/**
+	 * Emits the instruction which replaces the two values on the top of the
+	 * stack by the result of the binary operator.
+	 * 
+	 * @param operator
+	 *            Binary operator.
+	 */
+	void binary(DoubleBinaryOperator operator) {
+		if (operator == Operators.ADD) {
+			emit(CompiledExpression.ADD, 0, -1);
+		} else if (operator == Operators.SUBTRACT) {
+			emit(CompiledExpression.SUBTRACT, 0, -1);
+		} else if (operator == Operators.MULTIPLY) {
+			emit(CompiledExpression.MULTIPLY, 0, -1);
+		} else if (operator == Operators.DIVIDE) {
+			emit(CompiledExpression.DIVIDE, 0, -1);
+		} else {
+			emit(CompiledExpression.BINARY, indexOf(binaryOperators, operator), -1);
+		}
+	}
+
+	/**
+	 * Emits the instruction.
+	 * 
+	 * @param opcode
+	 *            Operation code of the instruction.
+	 * @param operand
+	 *            Operand of the instruction.
+	 * @param change
+	 *            Change of the stack depth made by the instruction.
+	 */
+	private void emit(int opcode, int operand, int change) {
+		if (length == opcodes.length) {
+			opcodes = Arrays.copyOf(opcodes, length * 2);
+			operands = Arrays.copyOf(operands, length * 2);
+		}
+		opcodes[length] = opcode;
+		operands[length] = operand;
+		length++;
+		depth += change;
+		maxDepth = Math.max(maxDepth, depth);
+	}
+
+	/**
+	 * Finds the index of the operator in the list, adding it if it is not in
+	 * the list yet.
+	 * 
+	 * @param list
+	 *            List of the operators.
+	 * @param operator
+	 *            Operator.
+	 * @return Index of the operator.
+	 */
+	private static <T> int indexOf(List<T> list, T operator) {
+		int index = list.indexOf(operator);
+		if (index < 0) {
+			index = list.size();
+			list.add(operator);
+		}
+		return index;
+	}
+
+	/**
+	 * Builds the compiled expression from the emitted instructions.
+	 * 
+	 * @param variableCount
+	 *            Number of variables of the expression.
+	 * @return Compiled expression.
+	 */
+	private CompiledExpression build(int variableCount) {
+		return new CompiledExpression(Arrays.copyOf(opcodes, length), Arrays.copyOf(operands, length),
+				Arrays.copyOf(constants, constantCount), unaryOperators.toArray(new DoubleUnaryOperator[0]),
+				binaryOperators.toArray(new DoubleBinaryOperator[0]), variableCount, maxDepth);
+	}
+}
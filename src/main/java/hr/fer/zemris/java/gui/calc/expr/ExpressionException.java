@@ -0,0 +1,33 @@
+package hr.fer.zemris.java.gui.calc.expr;
+
+/**
+ * Class that represents an expression exception. It is thrown when the
+ * expression can not be parsed or compiled.
+ * 
+ * @author Dinz
+ *
+ */
+public class ExpressionException extends RuntimeException {
+
+	/**
+	 * Serial
+	 */
+	private static final long serialVersionUID = 4129663045158112708L;
+
+	/**
+	 * Constructs a new expression exception.
+	 */
+	public ExpressionException() {
+		super();
+	}
+
+	/**
+	 * Constructs a new expression exception with appropriate message.
+	 * 
+	 * @param message
+	 *            Message of the exception.
+	 */
+	public ExpressionException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,234 @@
+package hr.fer.zemris.java.gui.calc.expr;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Class that represents a node of the abstract syntax tree of an expression.
+ * Nodes are immutable. Each of them can be folded, which replaces the subtrees
+ * without variables by their constant values, and compiled into the
+ * instructions of a {@link CompiledExpression}.
+ * 
+ * @author Dinz
+ *
+ */
+abstract class ExpressionNode {
+
+	/**
+	 * Folds the constant subtrees of this node.
+	 * 
+	 * @return Node with the same value and no constant subtrees which could be
+	 *         computed in advance.
+	 */
+	abstract ExpressionNode fold();
+
+	/**
+	 * Emits the instructions which push the value of this node to the stack.
+	 * 
+	 * @param compiler
+	 *            Compiler which collects the instructions.
+	 */
+	abstract void compile(ExpressionCompiler compiler);
+
+	/**
+	 * Class that represents a constant node.
+	 * 
+	 * @author Dinz
+	 *
+	 */
+	static final class Constant extends ExpressionNode {
+
+		/**
+		 * Value of the constant.
+		 */
+		final double value;
+
+		/**
+		 * Constructs a new constant node.
+		 * 
+		 * @param value
+		 *            Value of the constant.
+		 */
+		Constant(double value) {
+			this.value = value;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		ExpressionNode fold() {
+			return this;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		void compile(ExpressionCompiler compiler) {
+			compiler.constant(value);
+		}
+	}
+
+	/**
+	 * Class that represents a variable node.
+	 * 
+	 * @author Dinz
+	 *
+	 */
+	static final class Variable extends ExpressionNode {
+
+		/**
+		 * Index of the variable in the array of the bound values.
+		 */
+		final int index;
+
+		/**
+		 * Constructs a new variable node.
+		 * 
+		 * @param index
+		 *            Index of the variable in the array of the bound values.
+		 */
+		Variable(int index) {
+			this.index = index;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		ExpressionNode fold() {
+			return this;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		void compile(ExpressionCompiler compiler) {
+			compiler.variable(index);
+		}
+	}
+
+	/**
+	 * Class that represents a node which applies a unary operator, like a
+	 * function or a negation, on its operand.
+	 * 
+	 * @author Dinz
+	 *
+	 */
+	static final class Unary extends ExpressionNode {
+
+		/**
+		 * Applied operator.
+		 */
+		final DoubleUnaryOperator operator;
+
+		/**
+		 * Operand of the operator.
+		 */
+		final ExpressionNode operand;
+
+		/**
+		 * Constructs a new unary node.
+		 * 
+		 * @param operator
+		 *            Applied operator.
+		 * @param operand
+		 *            Operand of the operator.
+		 */
+		Unary(DoubleUnaryOperator operator, ExpressionNode operand) {
+			this.operator = operator;
+			this.operand = operand;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		ExpressionNode fold() {
+			ExpressionNode folded = operand.fold();
+			if (folded instanceof Constant) {
+				return new Constant(operator.applyAsDouble(((Constant) folded).value));
+			}
+			return folded == operand ? this : new Unary(operator, folded);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		void compile(ExpressionCompiler compiler) {
+			operand.compile(compiler);
+			compiler.unary(operator);
+		}
+	}
+
+	/**
+	 * Class that represents a node which applies a binary operator on its two
+	 * operands.
+	 * 
+	 * @author Dinz
+	 *
+	 */
+	static final class Binary extends ExpressionNode {
+
+		/**
+		 * Applied operator.
+		 */
+		final DoubleBinaryOperator operator;
+
+		/**
+		 * Left operand of the operator.
+		 */
+		final ExpressionNode left;
+
+		/**
+		 * Right operand of the operator.
+		 */
+		final ExpressionNode right;
+
+		/**
+		 * Constructs a new binary node.
+		 * 
+		 * @param operator
+		 *            Applied operator.
+		 * @param left
+		 *            Left operand of the operator.
+		 * @param right
+		 *            Right operand of the operator.
+		 */
+		Binary(DoubleBinaryOperator operator, ExpressionNode left, ExpressionNode right) {
+			this.operator = operator;
+			this.left = left;
+			this.right = right;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		ExpressionNode fold() {
+			ExpressionNode foldedLeft = left.fold();
+			ExpressionNode foldedRight = right.fold();
+			if (foldedLeft instanceof Constant && foldedRight instanceof Constant) {
+				return new Constant(
+						operator.applyAsDouble(((Constant) foldedLeft).value, ((Constant) foldedRight).value));
+			}
+			if (foldedLeft == left && foldedRight == right) {
+				return this;
+			}
+			return new Binary(operator, foldedLeft, foldedRight);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		void compile(ExpressionCompiler compiler) {
+			left.compile(compiler);
+			right.compile(compiler);
+			compiler.binary(operator);
+		}
+	}
+}
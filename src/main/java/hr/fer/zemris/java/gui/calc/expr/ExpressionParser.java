@@ -0,0 +1,322 @@
+package hr.fer.zemris.java.gui.calc.expr;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+
+import hr.fer.zemris.java.gui.calc.Operators;
+
+/**
+ * Class that represents a recursive descent parser of the calculator
+ * expressions. It builds the tree of {@link ExpressionNode}s using the same
+ * operators as the calculator buttons. The grammar, from the lowest to the
+ * highest precedence, is:
+ * 
+ * <pre>
+ * expression = term { ("+" | "-") term }
+ * term       = unary { ("*" | "/") unary }
+ * unary      = ("+" | "-") unary | power
+ * power      = primary [ "^" unary ]
+ * primary    = number | constant | variable | function "(" expression ")"
+ *              | "(" expression ")"
+ * </pre>
+ * 
+ * @author Dinz
+ *
+ */
+class ExpressionParser {
+
+	/**
+	 * Negation operator.
+	 */
+	private static final DoubleUnaryOperator NEGATE = x -> -x;
+
+	/**
+	 * Functions which can be used in the expressions, by their names.
+	 */
+	private static final Map<String, DoubleUnaryOperator> FUNCTIONS = new HashMap<>();
+
+	/**
+	 * Constants which can be used in the expressions, by their names.
+	 */
+	private static final Map<String, Double> CONSTANTS = new HashMap<>();
+
+	static {
+		FUNCTIONS.put("sin", Math::sin);
+		FUNCTIONS.put("cos", Math::cos);
+		FUNCTIONS.put("tan", Math::tan);
+		FUNCTIONS.put("ctg", x -> Math.pow(Math.tan(x), -1));
+		FUNCTIONS.put("asin", Math::asin);
+		FUNCTIONS.put("acos", Math::acos);
+		FUNCTIONS.put("atan", Math::atan);
+		FUNCTIONS.put("actg", x -> Math.PI / 2 - Math.atan(x));
+		FUNCTIONS.put("log", Math::log10);
+		FUNCTIONS.put("ln", Math::log);
+		FUNCTIONS.put("exp", Math::exp);
+		FUNCTIONS.put("sqrt", Math::sqrt);
+		FUNCTIONS.put("abs", Math::abs);
+
+		CONSTANTS.put("pi", Math.PI);
+		CONSTANTS.put("e", Math.E);
+	}
+
+	/**
+	 * Parsed expression.
+	 */
+	private final String text;
+
+	/**
+	 * Names of the variables.
+	 */
+	private final String[] variables;
+
+	/**
+	 * Position of the next unread character.
+	 */
+	private int position;
+
+	/**
+	 * Constructs a new expression parser.
+	 * 
+	 * @param text
+	 *            Expression to be parsed.
+	 * @param variables
+	 *            Names of the variables.
+	 * @throws NullPointerException
+	 *             If the expression or the variables are null.
+	 */
+	ExpressionParser(String text, String[] variables) {
+		this.text = text;
+		this.variables = variables.clone();
+	}
+
+	/**
+	 * Parses the whole expression.
+	 * 
+	 * @return Root of the expression tree.
+	 * @throws ExpressionException
+	 *             If the expression is not valid.
+	 */
+	ExpressionNode parse() {
+		if (text.trim().isEmpty()) {
+			throw new ExpressionException("Expression is empty.");
+		}
+		ExpressionNode root = parseExpression();
+		skipSpaces();
+		if (position < text.length()) {
+			throw error("Unexpected character '" + text.charAt(position) + "'");
+		}
+		return root;
+	}
+
+	/**
+	 * Parses the sum or the difference of the terms.
+	 * 
+	 * @return Parsed node.
+	 */
+	private ExpressionNode parseExpression() {
+		ExpressionNode node = parseTerm();
+		while (true) {
+			if (accept('+')) {
+				node = new ExpressionNode.Binary(Operators.ADD, node, parseTerm());
+			} else if (accept('-')) {
+				node = new ExpressionNode.Binary(Operators.SUBTRACT, node, parseTerm());
+			} else {
+				return node;
+			}
+		}
+	}
+
+	/**
+	 * Parses the product or the quotient of the factors.
+	 * 
+	 * @return Parsed node.
+	 */
+	private ExpressionNode parseTerm() {
+		ExpressionNode node = parseUnary();
+		while (true) {
+			if (accept('*')) {
+				node = new ExpressionNode.Binary(Operators.MULTIPLY, node, parseUnary());
+			} else if (accept('/')) {
+				node = new ExpressionNode.Binary(Operators.DIVIDE, node, parseUnary());
+			} else {
+				return node;
+			}
+		}
+	}
+
+	/**
+	 * Parses the factor with an optional sign.
+	 * 
+	 * @return Parsed node.
+	 */
+	private ExpressionNode parseUnary() {
+		if (accept('-')) {
+			return new ExpressionNode.Unary(NEGATE, parseUnary());
+		}
+		accept('+');
+		return parsePower();
+	}
+
+	/**
+	 * Parses the power. The power is right associative and its exponent can
+	 * have a sign.
+	 * 
+	 * @return Parsed node.
+	 */
+	private ExpressionNode parsePower() {
+		ExpressionNode base = parsePrimary();
+		if (accept('^')) {
+			return new ExpressionNode.Binary(Operators.POWER, base, parseUnary());
+		}
+		return base;
+	}
+
+	/**
+	 * Parses a number, a name or an expression in parentheses.
+	 * 
+	 * @return Parsed node.
+	 */
+	private ExpressionNode parsePrimary() {
+		skipSpaces();
+		if (position == text.length()) {
+			throw error("Unexpected end of the expression");
+		}
+		char c = text.charAt(position);
+		if (accept('(')) {
+			ExpressionNode node = parseExpression();
+			expect(')');
+			return node;
+		}
+		if (Character.isDigit(c) || c == '.') {
+			return parseNumber();
+		}
+		if (Character.isLetter(c)) {
+			return parseName();
+		}
+		throw error("Unexpected character '" + c + "'");
+	}
+
+	/**
+	 * Parses a number with an optional fraction and exponent.
+	 * 
+	 * @return Parsed node.
+	 */
+	private ExpressionNode parseNumber() {
+		int start = position;
+		skipDigits();
+		if (position < text.length() && text.charAt(position) == '.') {
+			position++;
+			skipDigits();
+		}
+		if (position < text.length() && (text.charAt(position) == 'e' || text.charAt(position) == 'E')) {
+			int exponent = position++;
+			if (position < text.length() && (text.charAt(position) == '+' || text.charAt(position) == '-')) {
+				position++;
+			}
+			int digits = position;
+			skipDigits();
+			if (digits == position) {
+				position = exponent;
+			}
+		}
+		try {
+			return new ExpressionNode.Constant(Double.parseDouble(text.substring(start, position)));
+		} catch (NumberFormatException ex) {
+			position = start;
+			throw error("Invalid number");
+		}
+	}
+
+	/**
+	 * Parses a function call, a constant or a variable.
+	 * 
+	 * @return Parsed node.
+	 */
+	private ExpressionNode parseName() {
+		int start = position;
+		while (position < text.length() && Character.isLetterOrDigit(text.charAt(position))) {
+			position++;
+		}
+		String name = text.substring(start, position);
+
+		for (int i = 0; i < variables.length; i++) {
+			if (variables[i].equals(name)) {
+				return new ExpressionNode.Variable(i);
+			}
+		}
+		DoubleUnaryOperator function = FUNCTIONS.get(name);
+		if (function != null) {
+			expect('(');
+			ExpressionNode argument = parseExpression();
+			expect(')');
+			return new ExpressionNode.Unary(function, argument);
+		}
+		Double constant = CONSTANTS.get(name);
+		if (constant != null) {
+			return new ExpressionNode.Constant(constant);
+		}
+		position = start;
+		throw error("Unknown name '" + name + "'");
+	}
+
+	/**
+	 * Consumes the given character if it is the next one after the spaces.
+	 * 
+	 * @param c
+	 *            Expected character.
+	 * @return True if the character was consumed, false otherwise.
+	 */
+	private boolean accept(char c) {
+		skipSpaces();
+		if (position < text.length() && text.charAt(position) == c) {
+			position++;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Consumes the given character which must be the next one after the
+	 * spaces.
+	 * 
+	 * @param c
+	 *            Expected character.
+	 * @throws ExpressionException
+	 *             If the next character is not the expected one.
+	 */
+	private void expect(char c) {
+		if (!accept(c)) {
+			throw error("Expected '" + c + "'");
+		}
+	}
+
+	/**
+	 * Skips the whitespace characters.
+	 */
+	private void skipSpaces() {
+		while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+			position++;
+		}
+	}
+
+	/**
+	 * Skips the digits.
+	 */
+	private void skipDigits() {
+		while (position < text.length() && Character.isDigit(text.charAt(position))) {
+			position++;
+		}
+	}
+
+	/**
+	 * Creates the exception with the given message and the current position.
+	 * 
+	 * @param message
+	 *            Message of the exception.
+	 * @return Created exception.
+	 */
+	private ExpressionException error(String message) {
+		return new ExpressionException(message + " at position " + position + ".");
+	}
+}
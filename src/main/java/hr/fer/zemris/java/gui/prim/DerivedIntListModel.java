@@ -0,0 +1,372 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+/**
+ * Class that represents a list model derived from another integer list model.
+ * Only some positions of the source are shown, and each of them is shown as a
+ * value computed from the source. The view keeps an index of the matching
+ * source positions, which is built up to a demanded number of elements: a page
+ * when the view is constructed, and more when {@link #ensureIndexed(int)} is
+ * called. Elements added to the source are indexed by the source listener
+ * while the index is shorter than demanded. The getters never change the
+ * index, since the lists read them while laying themselves out; reading an
+ * element near the end of the index only schedules an extension by a page on
+ * the event dispatch thread, and the listeners are notified about the new
+ * elements when it runs. A position can depend on the given number of the
+ * following source elements, so it is tested only after they are added. Views
+ * can be derived from other views, in which case the source view is extended
+ * as needed.
+ * 
+ * @author Dinz
+ *
+ */
+public class DerivedIntListModel implements IntListModel {
+
+	/**
+	 * Initial capacity of the index.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Number of elements indexed ahead of the highest requested one.
+	 */
+	private static final int PAGE_SIZE = 1024;
+
+	/**
+	 * Source model.
+	 */
+	private final IntListModel source;
+
+	/**
+	 * Number of the following source elements needed to test a position.
+	 */
+	private final int lookahead;
+
+	/**
+	 * Test of the source positions.
+	 */
+	private final IntPredicate positions;
+
+	/**
+	 * Value shown for each matching source position.
+	 */
+	private final IntUnaryOperator values;
+
+	/**
+	 * List of listeners of this model.
+	 */
+	private final List<ListDataListener> listeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Matching source positions. Only the first {@link #size} elements are used.
+	 */
+	private volatile int[] index = new int[INITIAL_CAPACITY];
+
+	/**
+	 * Number of matching source positions.
+	 */
+	private volatile int size;
+
+	/**
+	 * Number of source positions which are already tested.
+	 */
+	private int tested;
+
+	/**
+	 * Number of elements which the index should contain, if the source has
+	 * enough matching positions.
+	 */
+	private int demand;
+
+	/**
+	 * Flag that checks if the index is being extended, so the events of the
+	 * source caused by the extension itself are ignored.
+	 */
+	private boolean scanning;
+
+	/**
+	 * Constructs a new derived list model which registers itself as a listener
+	 * of the source. The first page of the index is built right away.
+	 * 
+	 * @param source
+	 *            Source model.
+	 * @param lookahead
+	 *            Number of the following source elements needed to test a
+	 *            position.
+	 * @param positions
+	 *            Test of the source positions.
+	 * @param values
+	 *            Value shown for each matching source position.
+	 * @throws IllegalArgumentException
+	 *             If the lookahead is negative.
+	 */
+	public DerivedIntListModel(IntListModel source, int lookahead, IntPredicate positions, IntUnaryOperator values) {
+		if (lookahead < 0) {
+			throw new IllegalArgumentException("Lookahead must not be negative.");
+		}
+		this.source = Objects.requireNonNull(source);
+		this.lookahead = lookahead;
+		this.positions = Objects.requireNonNull(positions);
+		this.values = Objects.requireNonNull(values);
+		demand = PAGE_SIZE;
+		scan();
+		source.addListDataListener(new SourceListener());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @return Number of indexed matching source positions.
+	 */
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * If the element is near the end of the index, the extension of the index
+	 * by a page is scheduled.
+	 */
+	@Override
+	public int getInt(int i) {
+		Objects.checkIndex(i, size);
+		int position = index[i];
+		if ((long) i + PAGE_SIZE >= size) {
+			extendLater((int) Math.min(Integer.MAX_VALUE, (long) i + PAGE_SIZE + 1));
+		}
+		return values.applyAsInt(position);
+	}
+
+	/**
+	 * Gets the source position of the element.
+	 * 
+	 * @param i
+	 *            Index of the element.
+	 * @return Position of the element in the source.
+	 * @throws IndexOutOfBoundsException
+	 *             If the index is out of range.
+	 */
+	public int getSourceIndex(int i) {
+		Objects.checkIndex(i, size);
+		return index[i];
+	}
+
+	/**
+	 * Extends the index to the given number of elements, or as far as the
+	 * source allows, and notifies the listeners about the new elements.
+	 * 
+	 * @param count
+	 *            Requested number of elements.
+	 */
+	public void ensureIndexed(int count) {
+		int first;
+		int last;
+		synchronized (this) {
+			demand = Math.max(demand, count);
+			first = size;
+			last = scan() - 1;
+		}
+		fire(ListDataEvent.INTERVAL_ADDED, first, last);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @param l
+	 *            Listener.
+	 */
+	@Override
+	public void addListDataListener(ListDataListener l) {
+		listeners.add(l);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @param l
+	 *            Listener.
+	 */
+	@Override
+	public void removeListDataListener(ListDataListener l) {
+		listeners.remove(l);
+	}
+
+	/**
+	 * Schedules the extension of the index to the given number of elements on
+	 * the event dispatch thread, unless that many elements are already
+	 * demanded.
+	 * 
+	 * @param count
+	 *            Requested number of elements.
+	 */
+	private void extendLater(int count) {
+		synchronized (this) {
+			if (count <= demand) {
+				return;
+			}
+			demand = count;
+		}
+		SwingUtilities.invokeLater(() -> ensureIndexed(count));
+	}
+
+	/**
+	 * Tests the source positions which became testable and appends the
+	 * matching ones to the index, until it contains the demanded number of
+	 * elements. If the source is also a view, it is extended by a page whenever
+	 * all of its elements are tested.
+	 * 
+	 * @return New size of the index.
+	 */
+	private int scan() {
+		int count = size;
+		int[] array = index;
+		scanning = true;
+		try {
+			while (count < demand) {
+				if (tested >= source.getSize() - lookahead) {
+					if (!extendSource()) {
+						break;
+					}
+					continue;
+				}
+				if (positions.test(tested)) {
+					if (count == array.length) {
+						array = Arrays.copyOf(array, array.length * 2);
+					}
+					array[count++] = tested;
+				}
+				tested++;
+			}
+		} finally {
+			scanning = false;
+		}
+		index = array;
+		size = count;
+		return count;
+	}
+
+	/**
+	 * Extends the source by a page if it is also a view.
+	 * 
+	 * @return True if the source got new elements, false otherwise.
+	 */
+	private boolean extendSource() {
+		if (!(source instanceof DerivedIntListModel)) {
+			return false;
+		}
+		int before = source.getSize();
+		((DerivedIntListModel) source).ensureIndexed(before + PAGE_SIZE);
+		return source.getSize() > before;
+	}
+
+	/**
+	 * Notifies all the listeners about the event of the given type.
+	 * 
+	 * @param type
+	 *            Type of the event.
+	 * @param index0
+	 *            Index of the first element of the interval.
+	 * @param index1
+	 *            Index of the last element of the interval.
+	 */
+	private void fire(int type, int index0, int index1) {
+		if (index1 < index0) {
+			return;
+		}
+		ListDataEvent event = new ListDataEvent(this, type, index0, index1);
+		for (ListDataListener l : listeners) {
+			if (type == ListDataEvent.INTERVAL_ADDED) {
+				l.intervalAdded(event);
+			} else {
+				l.intervalRemoved(event);
+			}
+		}
+	}
+
+	/**
+	 * Class that represents a listener of the source which keeps the index up
+	 * to date.
+	 * 
+	 * @author Dinz
+	 *
+	 */
+	private class SourceListener implements ListDataListener {
+
+		/**
+		 * {@inheritDoc}
+		 * 
+		 * Only the added positions, and the ones which became testable because of
+		 * them, are tested, and only while the index is shorter than demanded.
+		 */
+		@Override
+		public void intervalAdded(ListDataEvent e) {
+			int first;
+			int last;
+			synchronized (DerivedIntListModel.this) {
+				if (scanning) {
+					return;
+				}
+				if (e.getIndex0() < tested) {
+					first = -1;
+					last = -1;
+				} else {
+					first = size;
+					last = scan() - 1;
+				}
+			}
+			if (first < 0) {
+				rebuild();
+			} else {
+				fire(ListDataEvent.INTERVAL_ADDED, first, last);
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void intervalRemoved(ListDataEvent e) {
+			rebuild();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void contentsChanged(ListDataEvent e) {
+			rebuild();
+		}
+
+		/**
+		 * Rebuilds the index up to the demanded size after the source changed in
+		 * a way other than appending.
+		 */
+		private void rebuild() {
+			int removed;
+			int added;
+			synchronized (DerivedIntListModel.this) {
+				if (scanning) {
+					return;
+				}
+				removed = size;
+				size = 0;
+				tested = 0;
+				added = scan();
+			}
+			fire(ListDataEvent.INTERVAL_REMOVED, 0, removed - 1);
+			fire(ListDataEvent.INTERVAL_ADDED, 0, added - 1);
+		}
+	}
+}
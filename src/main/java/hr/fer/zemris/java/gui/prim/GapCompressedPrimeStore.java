@@ -0,0 +1,123 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.util.Arrays;
+
+/**
+ * Class that represents a compressed storage of prime numbers. Instead of the
+ * primes, the gaps between consecutive primes are stored, halved and in one
+ * byte each, which is enough for all the gaps between integer primes. Every
+ * {@link #CHECKPOINT_INTERVAL}-th prime is also stored as an absolute value, so
+ * a prime is found by adding at most {@link #CHECKPOINT_INTERVAL} - 1 gaps to
+ * the nearest checkpoint. The storage needs about a quarter of the memory of
+ * the {@link IntArrayPrimeStore}.
+ * 
+ * @author Dinz
+ *
+ */
+public class GapCompressedPrimeStore implements PrimeStore {
+
+	/**
+	 * Number of primes between two checkpoints. Must be a power of two.
+	 */
+	static final int CHECKPOINT_INTERVAL = 64;
+
+	/**
+	 * Binary logarithm of the {@link #CHECKPOINT_INTERVAL}.
+	 */
+	private static final int CHECKPOINT_SHIFT = Integer.numberOfTrailingZeros(CHECKPOINT_INTERVAL);
+
+	/**
+	 * Initial number of primes which fit in the storage.
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/**
+	 * Halved gaps between each prime and the previous one. The only odd gap,
+	 * between the primes two and three, is stored as zero. The reference is
+	 * volatile, so an enlarged array is seen by the readers together with the
+	 * copied gaps.
+	 */
+	private volatile byte[] gaps = new byte[INITIAL_CAPACITY];
+
+	/**
+	 * Primes at the indices which are multiples of the checkpoint interval. The
+	 * reference is volatile for the same reason as {@link #gaps}.
+	 */
+	private volatile int[] checkpoints = new int[INITIAL_CAPACITY >> CHECKPOINT_SHIFT];
+
+	/**
+	 * Number of stored primes.
+	 */
+	private int size;
+
+	/**
+	 * Last stored prime.
+	 */
+	private int last;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int get(int index) {
+		int prime = checkpoints[index >>> CHECKPOINT_SHIFT];
+		for (int i = (index & -CHECKPOINT_INTERVAL) + 1; i <= index; i++) {
+			int gap = gaps[i] & 0xFF;
+			prime += gap == 0 ? 1 : gap << 1;
+		}
+		return prime;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @throws IllegalArgumentException
+	 *             If the gap from the last stored prime can not be stored.
+	 */
+	@Override
+	public void add(int prime) {
+		ensureCapacity(size + 1);
+		if ((size & (CHECKPOINT_INTERVAL - 1)) == 0) {
+			checkpoints[size >>> CHECKPOINT_SHIFT] = prime;
+		} else {
+			int gap = prime - last;
+			if (gap == 1) {
+				gaps[size] = 0;
+			} else if (gap > 1 && (gap & 1) == 0 && gap >>> 1 <= 0xFF) {
+				gaps[size] = (byte) (gap >>> 1);
+			} else {
+				throw new IllegalArgumentException("Gap between " + last + " and " + prime + " can not be stored.");
+			}
+		}
+		last = prime;
+		size++;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long byteSize() {
+		return gaps.length + (long) checkpoints.length * Integer.BYTES;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void ensureCapacity(int capacity) {
+		if (capacity > gaps.length) {
+			int newCapacity = Math.max(capacity, gaps.length * 2);
+			gaps = Arrays.copyOf(gaps, newCapacity);
+			checkpoints = Arrays.copyOf(checkpoints, (newCapacity + CHECKPOINT_INTERVAL - 1) >>> CHECKPOINT_SHIFT);
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.util.Arrays;
+
+/**
+ * Class that represents a storage of prime numbers in a growable integer
+ * array.
+ * 
+ * @author Dinz
+ *
+ */
+public class IntArrayPrimeStore implements PrimeStore {
+
+	/**
+	 * Initial capacity of the storage.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Array of stored prime numbers. Only the first {@link #size} elements are
+	 * used. The reference is volatile, so an enlarged array is seen by the
+	 * readers together with the copied primes.
+	 */
+	private volatile int[] elements = new int[INITIAL_CAPACITY];
+
+	/**
+	 * Number of stored primes.
+	 */
+	private int size;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int get(int index) {
+		return elements[index];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void add(int prime) {
+		ensureCapacity(size + 1);
+		elements[size++] = prime;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long byteSize() {
+		return (long) elements.length * Integer.BYTES;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void ensureCapacity(int capacity) {
+		if (capacity > elements.length) {
+			elements = Arrays.copyOf(elements, Math.max(capacity, elements.length * 2));
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package hr.fer.zemris.java.gui.prim;
+
+import javax.swing.ListModel;
+
+/**
+ * Interface that represents a list model of integers whose elements can be
+ * read without boxing them.
+ * 
+ * @author Dinz
+ *
+ */
+public interface IntListModel extends ListModel<Integer> {
+
+	/**
+	 * Gets the element at the given index without boxing it.
+	 * 
+	 * @param index
+	 *            Index of the element.
+	 * @return Element at the given index.
+	 * @throws IndexOutOfBoundsException
+	 *             If the index is out of range.
+	 */
+	int getInt(int index);
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @param index
+	 *            Index of the element.
+	 * @return Element at the given index.
+	 */
+	@Override
+	default Integer getElementAt(int index) {
+		return getInt(index);
+	}
+}
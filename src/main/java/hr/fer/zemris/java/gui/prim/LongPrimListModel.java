@@ -0,0 +1,169 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import javax.swing.ListModel;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+/**
+ * Class that represents a model for lists of long prime numbers. The first
+ * element is the starting number and it is followed by the primes greater than
+ * it, which are generated by the {@link LongPrimeSieve}. With the default
+ * starting number one, the elements are the same as in the
+ * {@link PrimListModel}, but the model also works for the primes which do not
+ * fit in an integer.
+ * 
+ * @author Dinz
+ *
+ */
+public class LongPrimListModel implements ListModel<Long> {
+
+	/**
+	 * Initial capacity of the storage of the prime numbers.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Array of stored elements. Only the first {@link #size} elements are used.
+	 */
+	private long[] elements = new long[INITIAL_CAPACITY];
+
+	/**
+	 * Number of stored elements.
+	 */
+	private int size;
+
+	/**
+	 * List of listeners of this model.
+	 */
+	private List<ListDataListener> listeners = new ArrayList<>();
+
+	/**
+	 * Sieve that generates the prime numbers.
+	 */
+	private LongPrimeSieve sieve;
+
+	/**
+	 * Constructs a new long prime numbers list model which starts with one.
+	 */
+	public LongPrimListModel() {
+		this(1);
+	}
+
+	/**
+	 * Constructs a new long prime numbers list model which starts with the given
+	 * number.
+	 * 
+	 * @param start
+	 *            Starting number of the model.
+	 * @throws IllegalArgumentException
+	 *             If the starting number is negative or equal to
+	 *             {@link Long#MAX_VALUE}.
+	 */
+	public LongPrimListModel(long start) {
+		if (start < 0 || start == Long.MAX_VALUE) {
+			throw new IllegalArgumentException("Starting number must be between 0 and " + (Long.MAX_VALUE - 1) + ".");
+		}
+		elements[size++] = start;
+		sieve = new LongPrimeSieve(start + 1);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @return Number of stored elements.
+	 */
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @param index
+	 *            Index of the element.
+	 * @return Element at the given index.
+	 */
+	@Override
+	public Long getElementAt(int index) {
+		return getLong(index);
+	}
+
+	/**
+	 * Gets the element at the given index without boxing it.
+	 * 
+	 * @param index
+	 *            Index of the element.
+	 * @return Element at the given index.
+	 * @throws IndexOutOfBoundsException
+	 *             If the index is out of range.
+	 */
+	public long getLong(int index) {
+		Objects.checkIndex(index, size);
+		return elements[index];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @param l
+	 *            Listener.
+	 */
+	@Override
+	public void addListDataListener(ListDataListener l) {
+		listeners.add(l);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @param l
+	 *            Listener.
+	 */
+	@Override
+	public void removeListDataListener(ListDataListener l) {
+		listeners.remove(l);
+	}
+
+	/**
+	 * Method that adds the next prime number to the list.
+	 */
+	public void next() {
+		next(1);
+	}
+
+	/**
+	 * Method that adds the given number of next prime numbers to the list. The
+	 * listeners are notified only once for the whole added interval. Adding stops
+	 * early if there are no more primes representable as a long.
+	 * 
+	 * @param count
+	 *            Number of prime numbers to be added.
+	 * @throws IllegalArgumentException
+	 *             If the count is negative.
+	 */
+	public void next(int count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Count must not be negative.");
+		}
+		int first = size;
+		if ((long) size + count > elements.length) {
+			elements = Arrays.copyOf(elements, (int) Math.max((long) size + count, 2L * elements.length));
+		}
+		for (int i = 0; i < count && sieve.hasNext(); i++) {
+			elements[size++] = sieve.next();
+		}
+
+		if (size > first) {
+			ListDataEvent event = new ListDataEvent(this, ListDataEvent.INTERVAL_ADDED, first, size - 1);
+			for (ListDataListener l : listeners) {
+				l.intervalAdded(event);
+			}
+		}
+	}
+}
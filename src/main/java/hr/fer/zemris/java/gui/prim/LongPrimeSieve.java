@@ -0,0 +1,203 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Class that represents a windowed sieve which generates long prime numbers in
+ * ascending order. Each window of odd numbers is first sieved by the small
+ * primes. If the window lies below the square of the largest small prime, the
+ * remaining numbers are primes. Otherwise they are only candidates, and each
+ * of them is confirmed by the deterministic Miller-Rabin test from
+ * {@link LongPrimes}.
+ * 
+ * @author Dinz
+ *
+ */
+public class LongPrimeSieve {
+
+	/**
+	 * Number of 64-bit words in one window (16 KiB).
+	 */
+	static final int WINDOW_WORDS = 2048;
+
+	/**
+	 * Number of odd numbers represented by one window.
+	 */
+	static final int WINDOW_BITS = WINDOW_WORDS * 64;
+
+	/**
+	 * Bound of the small primes used for sieving.
+	 */
+	static final int SMALL_LIMIT = 1 << 20;
+
+	/**
+	 * Odd primes smaller than the {@link #SMALL_LIMIT}.
+	 */
+	static final int[] SMALL_PRIMES = PrimeSieve.oddPrimesUpTo(SMALL_LIMIT);
+
+	/**
+	 * Bits of the current window. Set bit marks an odd number which is not
+	 * prime.
+	 */
+	private final long[] composite = new long[WINDOW_WORDS];
+
+	/**
+	 * Odd number represented by the first bit of the current window.
+	 */
+	private long low;
+
+	/**
+	 * Number of bits of the current window which represent numbers up to
+	 * {@link Long#MAX_VALUE}.
+	 */
+	private int bits;
+
+	/**
+	 * Index of the next bit to be inspected in the current window.
+	 */
+	private int bit;
+
+	/**
+	 * Flag that checks if the remaining numbers of the window have to be tested.
+	 */
+	private boolean needsTest;
+
+	/**
+	 * Flag that checks if the number 2 still has to be returned.
+	 */
+	private boolean twoPending;
+
+	/**
+	 * Flag that checks if there are no more windows.
+	 */
+	private boolean exhausted;
+
+	/**
+	 * Prime number found by {@link #hasNext()} which was not yet returned, or zero
+	 * if there is none.
+	 */
+	private long peeked;
+
+	/**
+	 * Constructs a new long prime sieve which returns the primes greater than or
+	 * equal to the given number.
+	 * 
+	 * @param from
+	 *            Lower bound of the generated primes.
+	 */
+	public LongPrimeSieve(long from) {
+		twoPending = from <= 2;
+		long start = Math.max(from, 3);
+		low = (start & 1) == 0 ? start + 1 : start;
+		sieveWindow();
+	}
+
+	/**
+	 * Checks if there is a next prime number representable as a long.
+	 * 
+	 * @return True if there is a next prime number, false otherwise.
+	 */
+	public boolean hasNext() {
+		if (peeked == 0) {
+			peeked = advance();
+		}
+		return peeked > 0;
+	}
+
+	/**
+	 * Returns the next prime number without consuming it.
+	 * 
+	 * @return Next prime number.
+	 * @throws NoSuchElementException
+	 *             If the next prime is not representable as a long.
+	 */
+	public long peek() {
+		if (!hasNext()) {
+			throw new NoSuchElementException("Next prime is not representable as a long.");
+		}
+		return peeked;
+	}
+
+	/**
+	 * Returns the next prime number.
+	 * 
+	 * @return Next prime number.
+	 * @throws NoSuchElementException
+	 *             If the next prime is not representable as a long.
+	 */
+	public long next() {
+		long prime = peek();
+		peeked = 0;
+		return prime;
+	}
+
+	/**
+	 * Finds the next prime number.
+	 * 
+	 * @return Next prime number, or -1 if it is not representable as a long.
+	 */
+	private long advance() {
+		if (twoPending) {
+			twoPending = false;
+			return 2;
+		}
+
+		while (!exhausted) {
+			while (bit < bits) {
+				int word = bit >>> 6;
+				long w = ~composite[word] & (-1L << (bit & 63)) & PrimeSieve.mask(word, bits);
+				if (w == 0) {
+					bit = (word + 1) << 6;
+					continue;
+				}
+				int found = (word << 6) + Long.numberOfTrailingZeros(w);
+				bit = found + 1;
+				long candidate = low + 2L * found;
+				if (!needsTest || LongPrimes.millerRabin(candidate)) {
+					return candidate;
+				}
+			}
+			if (Long.MAX_VALUE - low < 2L * WINDOW_BITS) {
+				exhausted = true;
+			} else {
+				low += 2L * WINDOW_BITS;
+				sieveWindow();
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Sieves the window that starts with the current lower bound by the small
+	 * primes. The multiples of the wheel primes are marked by the {@link Wheel}
+	 * pattern.
+	 */
+	private void sieveWindow() {
+		Wheel.presieve(composite, WINDOW_WORDS, low);
+		bit = 0;
+		bits = (int) Math.min(WINDOW_BITS, (Long.MAX_VALUE - low) / 2 + 1);
+		long high = low + 2L * (bits - 1);
+		needsTest = high >= (long) SMALL_LIMIT * SMALL_LIMIT;
+
+		for (int k = Wheel.PRIMES.length; k < SMALL_PRIMES.length; k++) {
+			int p = SMALL_PRIMES[k];
+			long square = (long) p * p;
+			if (square > high) {
+				break;
+			}
+			long start;
+			if (square >= low) {
+				start = square;
+			} else {
+				long remainder = low % p;
+				start = remainder == 0 ? low : low + (p - remainder);
+				if ((start & 1) == 0) {
+					start += p;
+				}
+			}
+			for (long i = (start - low) >>> 1; i < bits; i += p) {
+				composite[(int) (i >>> 6)] |= 1L << i;
+			}
+		}
+	}
+}
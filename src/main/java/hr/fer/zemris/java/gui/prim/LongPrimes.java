@@ -0,0 +1,241 @@
+package hr.fer.zemris.java.gui.prim;
+
+/**
+ * Class that offers primality tests for long numbers. Numbers are tested with
+ * the deterministic Miller-Rabin test, using the sets of witnesses which are
+ * known to give the correct answer for all numbers below the given bounds. The
+ * modular arithmetic is done in the Montgomery form, so no division is needed
+ * while exponentiating.
+ * 
+ * @author Dinz
+ *
+ */
+public class LongPrimes {
+
+	/**
+	 * Witnesses which are sufficient for all the numbers below 2^32.
+	 */
+	private static final long[] WITNESSES_32 = { 2, 7, 61 };
+
+	/**
+	 * Witnesses which are sufficient for all the numbers below 2^64.
+	 */
+	private static final long[] WITNESSES_64 = { 2, 325, 9375, 28178, 450775, 9780504, 1795265022 };
+
+	/**
+	 * Small odd primes used for the trial division before the Miller-Rabin test.
+	 */
+	private static final int[] SMALL_PRIMES = { 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47, 53, 59, 61 };
+
+	/**
+	 * Disables the construction of the class.
+	 */
+	private LongPrimes() {
+	}
+
+	/**
+	 * Checks if the number is prime.
+	 * 
+	 * @param n
+	 *            Number to be checked.
+	 * @return True if the number is prime, false otherwise.
+	 */
+	public static boolean isPrime(long n) {
+		if (n < 2) {
+			return false;
+		}
+		if ((n & 1) == 0) {
+			return n == 2;
+		}
+		for (int p : SMALL_PRIMES) {
+			if (n % p == 0) {
+				return n == p;
+			}
+		}
+		if (n < 67L * 67L) {
+			return true;
+		}
+		return millerRabin(n);
+	}
+
+	/**
+	 * Finds the smallest prime greater than the given number. Only the
+	 * candidates coprime to 2, 3, 5 and 7 are tested, which are found by turning
+	 * the {@link Wheel}.
+	 * 
+	 * @param n
+	 *            Number after which the prime is searched.
+	 * @return Next prime number.
+	 * @throws ArithmeticException
+	 *             If the next prime is greater than {@link Long#MAX_VALUE}.
+	 */
+	public static long nextPrime(long n) {
+		if (n == Long.MAX_VALUE) {
+			throw new ArithmeticException("Next prime is greater than the largest long.");
+		}
+		if (n < Wheel.PRIMES[Wheel.PRIMES.length - 1]) {
+			for (long candidate = n + 1;; candidate++) {
+				if (isPrime(candidate)) {
+					return candidate;
+				}
+			}
+		}
+
+		long start = n + 1;
+		int index = Wheel.nextResidue(start);
+		long candidate = start - start % Wheel.CIRCUMFERENCE;
+		if (index == Wheel.RESIDUES.length) {
+			index = 0;
+			candidate += Wheel.CIRCUMFERENCE;
+		}
+		candidate += Wheel.RESIDUES[index];
+
+		while (candidate > 0) {
+			if (isPrime(candidate)) {
+				return candidate;
+			}
+			candidate += Wheel.GAPS[index];
+			index = index + 1 == Wheel.GAPS.length ? 0 : index + 1;
+		}
+		throw new ArithmeticException("Next prime is greater than the largest long.");
+	}
+
+	/**
+	 * Performs the deterministic Miller-Rabin test on the odd number which has
+	 * no small prime factors.
+	 * 
+	 * @param n
+	 *            Odd number greater than two.
+	 * @return True if the number is prime, false otherwise.
+	 */
+	static boolean millerRabin(long n) {
+		long nPrime = montgomeryInverse(n);
+		long one = Long.remainderUnsigned(-n, n);
+		long rSquared = one;
+		for (int i = 0; i < 64; i++) {
+			rSquared = addMod(rSquared, rSquared, n);
+		}
+		long minusOne = n - one;
+
+		long d = n - 1;
+		int s = Long.numberOfTrailingZeros(d);
+		d >>>= s;
+
+		long[] witnesses = n < (1L << 32) ? WITNESSES_32 : WITNESSES_64;
+		outer: for (long witness : witnesses) {
+			long a = witness % n;
+			if (a == 0) {
+				continue;
+			}
+			long x = power(multiply(a, rSquared, n, nPrime), d, one, n, nPrime);
+			if (x == one || x == minusOne) {
+				continue;
+			}
+			for (int i = 1; i < s; i++) {
+				x = multiply(x, x, n, nPrime);
+				if (x == minusOne) {
+					continue outer;
+				}
+				if (x == one) {
+					return false;
+				}
+			}
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Computes the power of the number in the Montgomery form.
+	 * 
+	 * @param base
+	 *            Base in the Montgomery form.
+	 * @param exponent
+	 *            Exponent.
+	 * @param one
+	 *            Number one in the Montgomery form.
+	 * @param n
+	 *            Modulus.
+	 * @param nPrime
+	 *            Negated inverse of the modulus modulo 2^64.
+	 * @return Power in the Montgomery form.
+	 */
+	private static long power(long base, long exponent, long one, long n, long nPrime) {
+		long result = one;
+		while (exponent != 0) {
+			if ((exponent & 1) != 0) {
+				result = multiply(result, base, n, nPrime);
+			}
+			base = multiply(base, base, n, nPrime);
+			exponent >>>= 1;
+		}
+		return result;
+	}
+
+	/**
+	 * Multiplies two numbers in the Montgomery form using the Montgomery
+	 * reduction.
+	 * 
+	 * @param a
+	 *            First factor, smaller than the modulus.
+	 * @param b
+	 *            Second factor, smaller than the modulus.
+	 * @param n
+	 *            Odd modulus smaller than 2^63.
+	 * @param nPrime
+	 *            Negated inverse of the modulus modulo 2^64.
+	 * @return Product in the Montgomery form.
+	 */
+	private static long multiply(long a, long b, long n, long nPrime) {
+		long high = Math.multiplyHigh(a, b);
+		long low = a * b;
+		long m = low * nPrime;
+		long result = high + unsignedMultiplyHigh(m, n) + (low != 0 ? 1 : 0);
+		return Long.compareUnsigned(result, n) >= 0 ? result - n : result;
+	}
+
+	/**
+	 * Computes the upper 64 bits of the unsigned product of two numbers.
+	 * 
+	 * @param a
+	 *            First factor.
+	 * @param b
+	 *            Second factor.
+	 * @return Upper 64 bits of the product.
+	 */
+	private static long unsignedMultiplyHigh(long a, long b) {
+		return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+	}
+
+	/**
+	 * Computes the negated inverse of the odd number modulo 2^64 using the
+	 * Newton iteration.
+	 * 
+	 * @param n
+	 *            Odd number.
+	 * @return Number x such that n * x = -1 modulo 2^64.
+	 */
+	private static long montgomeryInverse(long n) {
+		long inverse = n;
+		for (int i = 0; i < 5; i++) {
+			inverse *= 2 - n * inverse;
+		}
+		return -inverse;
+	}
+
+	/**
+	 * Adds two numbers modulo n.
+	 * 
+	 * @param a
+	 *            First number, smaller than n.
+	 * @param b
+	 *            Second number, smaller than n.
+	 * @param n
+	 *            Modulus smaller than 2^63.
+	 * @return Sum modulo n.
+	 */
+	private static long addMod(long a, long b, long n) {
+		long sum = a + b;
+		return Long.compareUnsigned(sum, n) >= 0 ? sum - n : sum;
+	}
+}
@@ -0,0 +1,195 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class that represents a storage of prime numbers in a memory-mapped file.
+ * The file starts with a header made of a magic number and the number of
+ * stored primes, followed by the primes as little-endian integers. Previously
+ * stored primes are used directly from the mapped file without any parsing and
+ * new primes are written to it as they are added, so the file can be reused
+ * the next time the program runs. When the store grows, a larger region is
+ * mapped and published to the readers, while the previous regions are kept
+ * mapped until the store is closed, because a reader may still be using them.
+ * The regions grow by doubling, so the retired ones together are never larger
+ * than the current one.
+ * 
+ * @author Dinz
+ *
+ */
+public class MappedPrimeStore implements PrimeStore {
+
+	/**
+	 * Magic number at the start of the file ("PRIM").
+	 */
+	private static final int MAGIC = 0x5052494D;
+
+	/**
+	 * Size of the header in bytes.
+	 */
+	private static final int HEADER_BYTES = 8;
+
+	/**
+	 * Position of the number of stored primes in the header.
+	 */
+	private static final int SIZE_POSITION = 4;
+
+	/**
+	 * Initial number of primes which fit in the mapped region.
+	 */
+	private static final int INITIAL_CAPACITY = 1 << 16;
+
+	/**
+	 * Channel of the file.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * Mapped region of the file. The reference is volatile, so a remapped region
+	 * is safely published to the readers.
+	 */
+	private volatile MappedByteBuffer buffer;
+
+	/**
+	 * Regions which were replaced by larger ones. They stay mapped until the
+	 * store is closed, so the readers which still hold them can finish.
+	 */
+	private final List<MappedByteBuffer> retired = new ArrayList<>();
+
+	/**
+	 * Number of primes which fit in the mapped region.
+	 */
+	private int capacity;
+
+	/**
+	 * Number of stored primes.
+	 */
+	private int size;
+
+	/**
+	 * Constructs a new mapped prime store. The file is created if it does not
+	 * exist.
+	 * 
+	 * @param file
+	 *            Path of the file.
+	 * @throws IOException
+	 *             If the file could not be mapped or if it is not a valid prime
+	 *             store file.
+	 */
+	public MappedPrimeStore(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			long length = channel.size();
+			if (length == 0) {
+				map(INITIAL_CAPACITY);
+				buffer.putInt(0, MAGIC);
+				buffer.putInt(SIZE_POSITION, 0);
+				return;
+			}
+			if (length < HEADER_BYTES) {
+				throw new IOException("File " + file + " is not a prime store.");
+			}
+			map((int) Math.max(INITIAL_CAPACITY, (length - HEADER_BYTES) / Integer.BYTES));
+			size = buffer.getInt(SIZE_POSITION);
+			if (buffer.getInt(0) != MAGIC || size < 0 || size > capacity) {
+				throw new IOException("File " + file + " is not a prime store.");
+			}
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int get(int index) {
+		return buffer.getInt(HEADER_BYTES + index * Integer.BYTES);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void add(int prime) {
+		ensureCapacity(size + 1);
+		buffer.putInt(HEADER_BYTES + size * Integer.BYTES, prime);
+		size++;
+		buffer.putInt(SIZE_POSITION, size);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The bytes are mapped from the file, so they are not on the heap.
+	 */
+	@Override
+	public long byteSize() {
+		return HEADER_BYTES + (long) capacity * Integer.BYTES;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void ensureCapacity(int capacity) {
+		if (capacity <= this.capacity) {
+			return;
+		}
+		try {
+			map(Math.max(capacity, (int) Math.min(PrimeSieve.INT_PRIME_COUNT, 2L * this.capacity)));
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not enlarge the prime store.", e);
+		}
+	}
+
+	/**
+	 * Writes the stored primes to the file and closes it. The retired regions
+	 * are released, so they are unmapped once they are garbage collected.
+	 */
+	@Override
+	public void close() throws IOException {
+		buffer.force();
+		retired.clear();
+		channel.close();
+	}
+
+	/**
+	 * Maps the region of the file which holds the header and the given number
+	 * of primes. The file is enlarged if needed. The region is put in the
+	 * little-endian order before it is published, so a concurrent reader never
+	 * sees it in the default order. The previous region is retired.
+	 * 
+	 * @param capacity
+	 *            Number of primes which fit in the region.
+	 * @throws IOException
+	 *             If the region could not be mapped.
+	 */
+	private void map(int capacity) throws IOException {
+		MappedByteBuffer mapped = channel.map(MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * Integer.BYTES);
+		mapped.order(ByteOrder.LITTLE_ENDIAN);
+		if (buffer != null) {
+			retired.add(buffer);
+		}
+		buffer = mapped;
+		this.capacity = capacity;
+	}
+}
@@ -0,0 +1,172 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Class that represents a parallel segmented sieve of Eratosthenes. The range
+ * is divided into the same cache-sized segments as in {@link PrimeSieve}, the
+ * segments are sieved independently in a {@link ForkJoinPool} and the found
+ * primes are merged in ascending order at the end.
+ * 
+ * @author Dinz
+ *
+ */
+public class ParallelPrimeSieve {
+
+	/**
+	 * Pool where the segments are sieved.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Constructs a new parallel prime sieve which uses the common pool.
+	 */
+	public ParallelPrimeSieve() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructs a new parallel prime sieve which uses the given pool.
+	 * 
+	 * @param pool
+	 *            Pool where the segments are sieved.
+	 */
+	public ParallelPrimeSieve(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Finds all the prime numbers in the given range.
+	 * 
+	 * @param from
+	 *            Lower bound of the range (inclusive).
+	 * @param to
+	 *            Upper bound of the range (inclusive).
+	 * @return Prime numbers from the range in ascending order.
+	 */
+	public int[] primes(int from, int to) {
+		if (to < 2 || to < from) {
+			return new int[0];
+		}
+
+		boolean withTwo = from <= 2;
+		long low = Math.max(from, 3) | 1;
+		long segmentLength = 2L * PrimeSieve.SEGMENT_BITS;
+		int segments = (int) Math.max(0, (to - low + segmentLength) / segmentLength);
+
+		int[][] found = new int[segments][];
+		pool.invoke(new SegmentTask(found, low, to, 0, segments));
+
+		int total = withTwo ? 1 : 0;
+		for (int[] primes : found) {
+			total += primes.length;
+		}
+
+		int[] result = new int[total];
+		int index = 0;
+		if (withTwo) {
+			result[index++] = 2;
+		}
+		for (int[] primes : found) {
+			System.arraycopy(primes, 0, result, index, primes.length);
+			index += primes.length;
+		}
+		return result;
+	}
+
+	/**
+	 * Class that represents a task which sieves a consecutive run of segments.
+	 * The run is split in halves until only one segment remains.
+	 * 
+	 * @author Dinz
+	 *
+	 */
+	private static class SegmentTask extends RecursiveAction {
+
+		/**
+		 * Serial
+		 */
+		private static final long serialVersionUID = -2961409766395347283L;
+
+		/**
+		 * Primes found in each segment.
+		 */
+		private final int[][] found;
+
+		/**
+		 * Odd number represented by the first bit of the first segment.
+		 */
+		private final long low;
+
+		/**
+		 * Upper bound of the sieved range (inclusive).
+		 */
+		private final long to;
+
+		/**
+		 * Index of the first segment of the task (inclusive).
+		 */
+		private final int first;
+
+		/**
+		 * Index of the last segment of the task (exclusive).
+		 */
+		private final int last;
+
+		/**
+		 * Constructs a new segment task.
+		 * 
+		 * @param found
+		 *            Primes found in each segment.
+		 * @param low
+		 *            Odd number represented by the first bit of the first segment.
+		 * @param to
+		 *            Upper bound of the sieved range (inclusive).
+		 * @param first
+		 *            Index of the first segment of the task (inclusive).
+		 * @param last
+		 *            Index of the last segment of the task (exclusive).
+		 */
+		SegmentTask(int[][] found, long low, long to, int first, int last) {
+			this.found = found;
+			this.low = low;
+			this.to = to;
+			this.first = first;
+			this.last = last;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected void compute() {
+			if (last - first > 1) {
+				int middle = (first + last) >>> 1;
+				invokeAll(new SegmentTask(found, low, to, first, middle),
+						new SegmentTask(found, low, to, middle, last));
+				return;
+			}
+			if (last > first) {
+				found[first] = sieve(low + 2L * PrimeSieve.SEGMENT_BITS * first);
+			}
+		}
+
+		/**
+		 * Sieves one segment and collects its primes.
+		 * 
+		 * @param segmentLow
+		 *            Odd number represented by the first bit of the segment.
+		 * @return Primes of the segment which are not above the upper bound.
+		 */
+		private int[] sieve(long segmentLow) {
+			long[] composite = new long[PrimeSieve.SEGMENT_WORDS];
+			PrimeSieve.sieveSegment(composite, segmentLow);
+
+			long bits = Math.min(PrimeSieve.SEGMENT_BITS, (to - segmentLow) / 2 + 1);
+			int[] primes = new int[PrimeSieve.count(composite, bits)];
+			PrimeSieve.collect(composite, segmentLow, bits, 0, primes, 0);
+			return primes;
+		}
+	}
+}
@@ -3,14 +3,27 @@ package hr.fer.zemris.java.gui.prim;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.GridLayout;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
 
+import javax.swing.DefaultListCellRenderer;
 import javax.swing.JButton;
 import javax.swing.JFrame;
+import javax.swing.JLabel;
 import javax.swing.JList;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
+import javax.swing.ListCellRenderer;
 import javax.swing.SwingUtilities;
 import javax.swing.WindowConstants;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
 
 /**
  * Class that represents a program which showcases the lists of the prime
@@ -27,10 +40,82 @@ public class PrimDemo extends JFrame {
 	private static final long serialVersionUID = 2552614965736703542L;
 
 	/**
-	 * Constructs a new primary list class.
+	 * Number of primes generated ahead of the demand.
+	 */
+	private static final int PREFETCH_DEPTH = 1 << 16;
+
+	/**
+	 * Model of the shown lists.
+	 */
+	private PrimListModel model;
+
+	/**
+	 * Flag that checks if the lists use the fast rendering mode.
+	 */
+	private final boolean fastRender;
+
+	/**
+	 * Flag that checks if the model was created for this frame, so it is
+	 * closed together with the frame.
+	 */
+	private final boolean ownsModel;
+
+	/**
+	 * Number of digits of the current prototype cell value, or zero if there is
+	 * none.
+	 */
+	private int prototypeDigits;
+
+	/**
+	 * Constructs a new primary list class with its own model, which is closed
+	 * when the frame is closed.
 	 */
 	public PrimDemo() {
+		this(new PrimListModel(), false, true);
+	}
+
+	/**
+	 * Constructs a new primary list class which shows the given model. The
+	 * model is not closed when the frame is closed.
+	 * 
+	 * @param model
+	 *            Model of the shown lists.
+	 */
+	public PrimDemo(PrimListModel model) {
+		this(model, false);
+	}
+
+	/**
+	 * Constructs a new primary list class which shows the given model. In the
+	 * fast rendering mode all the lists share one renderer and have fixed cells,
+	 * whose size is measured once on a prototype value instead of on the
+	 * elements. The model is not closed when the frame is closed.
+	 * 
+	 * @param model
+	 *            Model of the shown lists.
+	 * @param fastRender
+	 *            Flag that checks if the lists use the fast rendering mode.
+	 */
+	public PrimDemo(PrimListModel model, boolean fastRender) {
+		this(model, fastRender, false);
+	}
+
+	/**
+	 * Constructs a new primary list class which shows the given model.
+	 * 
+	 * @param model
+	 *            Model of the shown lists.
+	 * @param fastRender
+	 *            Flag that checks if the lists use the fast rendering mode.
+	 * @param ownsModel
+	 *            Flag that checks if the model is closed when the frame is
+	 *            closed.
+	 */
+	private PrimDemo(PrimListModel model, boolean fastRender, boolean ownsModel) {
 		super();
+		this.model = model;
+		this.fastRender = fastRender;
+		this.ownsModel = ownsModel;
 		setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
 		setTitle("Primary numbers");
 		setLocation(50, 50);
@@ -45,7 +130,18 @@ public class PrimDemo extends JFrame {
 	private void initGUI() {
 		getContentPane().setLayout(new BorderLayout());
 
-		PrimListModel model = new PrimListModel();
+		if (ownsModel) {
+			addWindowListener(new WindowAdapter() {
+				@Override
+				public void windowClosed(WindowEvent e) {
+					try {
+						model.close();
+					} catch (IOException ex) {
+						System.err.println("Could not close the prime cache: " + ex.getMessage());
+					}
+				}
+			});
+		}
 
 		JList<Integer> list1 = new JList<>(model);
 		JList<Integer> list2 = new JList<>(model);
@@ -55,9 +151,18 @@ public class PrimDemo extends JFrame {
 			model.next();
 		});
 
+		JList<Integer> twins = new JList<>(PrimListViews.twinPrimes(model));
+		JList<Integer> gaps = new JList<>(PrimListViews.gaps(model));
+
 		JPanel central = new JPanel(new GridLayout(1, 0));
 		central.add(new JScrollPane(list1));
 		central.add(new JScrollPane(list2));
+		central.add(titled(twins, "Twin primes"));
+		central.add(titled(gaps, "Gaps"));
+
+		if (fastRender) {
+			initFastRendering(Arrays.asList(list1, list2, twins, gaps));
+		}
 
 		getContentPane().add(central, BorderLayout.CENTER);
 		getContentPane().add(next, BorderLayout.PAGE_END);
@@ -65,17 +170,192 @@ public class PrimDemo extends JFrame {
 	}
 
 	/**
-	 * Main method that runs the program.
+	 * Switches the lists to the fast rendering mode. The lists share one
+	 * renderer and the size of their cells is measured on the largest prime,
+	 * again only when the number of its digits grows. With the fixed cell size
+	 * the lists find the visible rows directly, so only they are painted.
+	 * 
+	 * @param lists
+	 *            Lists to be switched.
+	 */
+	private void initFastRendering(List<JList<Integer>> lists) {
+		ListCellRenderer<Object> renderer = new DefaultListCellRenderer();
+		for (JList<Integer> list : lists) {
+			list.setCellRenderer(renderer);
+		}
+		updatePrototype(lists);
+
+		model.addListDataListener(new ListDataListener() {
+
+			@Override
+			public void intervalAdded(ListDataEvent e) {
+				updatePrototype(lists);
+			}
+
+			@Override
+			public void intervalRemoved(ListDataEvent e) {
+			}
+
+			@Override
+			public void contentsChanged(ListDataEvent e) {
+			}
+		});
+	}
+
+	/**
+	 * Sets the largest prime as the prototype cell value of the lists, if it has
+	 * more digits than the current one.
+	 * 
+	 * @param lists
+	 *            Lists in the fast rendering mode.
+	 */
+	private void updatePrototype(List<JList<Integer>> lists) {
+		int largest = model.getInt(model.getSize() - 1);
+		int digits = Integer.toString(largest).length();
+		if (digits <= prototypeDigits) {
+			return;
+		}
+		prototypeDigits = digits;
+		for (JList<Integer> list : lists) {
+			list.setPrototypeCellValue(largest);
+		}
+	}
+
+	/**
+	 * Wraps the list in a scroll pane with the given title.
+	 * 
+	 * @param list
+	 *            List to be wrapped.
+	 * @param title
+	 *            Title of the list.
+	 * @return Scroll pane with the list.
+	 */
+	private static JScrollPane titled(JList<Integer> list, String title) {
+		JScrollPane pane = new JScrollPane(list);
+		pane.setColumnHeaderView(new JLabel(title));
+		return pane;
+	}
+
+	/**
+	 * Main method that runs the program. With the arguments
+	 * <code>--cache FILE</code> the primes are kept in the given file, so the
+	 * next run continues where the previous one stopped. With the argument
+	 * <code>--fast-render</code> the lists use the fast rendering mode. With the
+	 * arguments <code>--headless --count N --out FILE [--format text|binary]</code>
+	 * no window is shown and the first N primes are exported to the file by the
+	 * {@link PrimeExporter}. With the argument <code>--jmx</code> the metrics
+	 * of the model are registered in the platform MBean server. With the
+	 * argument <code>--background</code> the primes are generated on a worker
+	 * thread ahead of the demand.
 	 * 
 	 * @param args
 	 *            Arguments from the command line.
 	 */
 	public static void main(String[] args) {
+		Path cache = null;
+		boolean fast = false;
+		boolean headless = false;
+		boolean jmx = false;
+		boolean background = false;
+		String count = null;
+		Path out = null;
+		String format = "text";
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--cache") && i + 1 < args.length) {
+				cache = Paths.get(args[++i]);
+			} else if (args[i].equals("--fast-render")) {
+				fast = true;
+			} else if (args[i].equals("--jmx")) {
+				jmx = true;
+			} else if (args[i].equals("--background")) {
+				background = true;
+			} else if (args[i].equals("--headless")) {
+				headless = true;
+			} else if (args[i].equals("--count") && i + 1 < args.length) {
+				count = args[++i];
+			} else if (args[i].equals("--out") && i + 1 < args.length) {
+				out = Paths.get(args[++i]);
+			} else if (args[i].equals("--format") && i + 1 < args.length) {
+				format = args[++i];
+			}
+		}
+		if (headless) {
+			export(count, out, format);
+			return;
+		}
+		Path cacheFile = cache;
+		boolean fastRender = fast;
+		boolean registerMetrics = jmx;
+		boolean prefetch = background;
 
 		SwingUtilities.invokeLater(() -> {
-			JFrame frame = new PrimDemo();
+			PrimListModel model;
+			if (cacheFile == null) {
+				model = new PrimListModel();
+			} else {
+				try {
+					model = new PrimListModel(new MappedPrimeStore(cacheFile));
+				} catch (IOException ex) {
+					JOptionPane.showMessageDialog(null, "Could not open the prime cache: " + ex.getMessage(),
+							"Error", JOptionPane.ERROR_MESSAGE);
+					model = new PrimListModel();
+				}
+			}
+			if (registerMetrics) {
+				PrimMetrics metrics = new PrimMetrics();
+				model.setMetrics(metrics);
+				try {
+					metrics.register("PrimDemo");
+				} catch (IllegalStateException ex) {
+					System.err.println(ex.getMessage());
+				}
+			}
+			if (prefetch) {
+				model.startBackground(PREFETCH_DEPTH);
+			}
+			JFrame frame = new PrimDemo(model, fastRender, true);
 			frame.pack();
 			frame.setVisible(true);
 		});
 	}
+
+	/**
+	 * Exports the first primes to the file without showing any window and
+	 * prints the number of written bytes and the throughput.
+	 * 
+	 * @param count
+	 *            Number of the primes, as given on the command line.
+	 * @param out
+	 *            Path of the file.
+	 * @param format
+	 *            Format of the file, as given on the command line.
+	 */
+	private static void export(String count, Path out, String format) {
+		if (count == null || out == null || !(format.equals("text") || format.equals("binary"))) {
+			System.err.println("Usage: PrimDemo --headless --count N --out FILE [--format text|binary]");
+			System.exit(1);
+			return;
+		}
+		long primes;
+		try {
+			primes = Long.parseLong(count);
+		} catch (NumberFormatException ex) {
+			System.err.println("Count must be a number: " + count);
+			System.exit(1);
+			return;
+		}
+		PrimeExporter.Format fileFormat = format.equals("binary") ? PrimeExporter.Format.BINARY
+				: PrimeExporter.Format.TEXT;
+
+		long start = System.nanoTime();
+		try {
+			long bytes = new PrimeExporter(fileFormat).export(primes, out);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.printf("Wrote %d primes (%d bytes) to %s in %.3f s (%.1f MB/s).%n", primes, bytes, out,
+					seconds, bytes / 1e6 / seconds);
+		} catch (IOException | IllegalArgumentException ex) {
+			System.err.println("Could not export the primes: " + ex.getMessage());
+			System.exit(1);
+		}
+	}
 }
@@ -1,40 +1,96 @@
 package hr.fer.zemris.java.gui.prim;
 
-import java.util.ArrayList;
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
-import javax.swing.ListModel;
 import javax.swing.event.ListDataEvent;
 import javax.swing.event.ListDataListener;
 
 /**
- * Class that represents a model for prime numbers lists.
+ * Class that represents a model for prime numbers lists. The first element is
+ * the number one and it is followed by the prime numbers kept in a
+ * {@link PrimeStore}. The model has a single writer, which is the thread that
+ * adds the primes, but it can be read from any thread without locking. The
+ * writer first stores the primes and then publishes the new size through a
+ * volatile field, so a reader which sees the size also sees all the elements
+ * below it. Listeners are kept in a copy-on-write list, so they can be added
+ * or removed while the events are dispatched.
  * 
  * @author Dinz
  *
  */
-public class PrimListModel implements ListModel<Integer> {
+public class PrimListModel implements IntListModel, Closeable {
 
 	/**
-	 * List of stored prime numbers.
+	 * Minimum length of the range for which {@link #advanceTo(int)} uses the
+	 * parallel sieve.
 	 */
-	private List<Integer> elements = new ArrayList<>();
+	private static final int PARALLEL_THRESHOLD = 16 * 2 * PrimeSieve.SEGMENT_BITS;
+
+	/**
+	 * Storage of the prime numbers.
+	 */
+	private final PrimeStore store;
 
 	/**
 	 * List of listeners of this model.
 	 */
-	private List<ListDataListener> listeners = new ArrayList<>();
+	private final List<ListDataListener> listeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Metrics where the model records its work, or null if there are none.
+	 */
+	private volatile PrimMetrics metrics;
+
+	/**
+	 * Published size of the model, which is the number of stored primes plus
+	 * the leading one.
+	 */
+	private volatile int size;
 
 	/**
 	 * Latest stored prime number.
 	 */
-	private int currentPrime = 1;
+	private int currentPrime;
+
+	/**
+	 * Sieve that generates the prime numbers.
+	 */
+	private PrimeSieve sieve;
 
 	/**
-	 * Constructs a new prime numbers list model.
+	 * Background producer of the prime numbers, or null if the model is not in
+	 * the background mode.
+	 */
+	private PrimProducer producer;
+
+	/**
+	 * Constructs a new prime numbers list model which stores the primes in an
+	 * integer array.
 	 */
 	public PrimListModel() {
-		elements.add(1);
+		this(new IntArrayPrimeStore());
+	}
+
+	/**
+	 * Constructs a new prime numbers list model which stores the primes in the
+	 * given storage. If the storage already contains primes, the model starts
+	 * with them and continues after the last one.
+	 * 
+	 * @param store
+	 *            Storage of the prime numbers.
+	 */
+	public PrimListModel(PrimeStore store) {
+		this.store = Objects.requireNonNull(store);
+		this.currentPrime = store.size() == 0 ? 1 : store.get(store.size() - 1);
+		this.sieve = new PrimeSieve(currentPrime + 1L);
+		this.size = store.size() + 1;
 	}
 
 	/**
@@ -44,7 +100,7 @@ public class PrimListModel implements ListModel<Integer> {
 	 */
 	@Override
 	public int getSize() {
-		return elements.size();
+		return size;
 	}
 
 	/**
@@ -56,7 +112,22 @@ public class PrimListModel implements ListModel<Integer> {
 	 */
 	@Override
 	public Integer getElementAt(int index) {
-		return elements.get(index);
+		return getInt(index);
+	}
+
+	/**
+	 * Gets the element at the given index without boxing it.
+	 * 
+	 * @param index
+	 *            Index of the element.
+	 * @return Prime number at the given index.
+	 * @throws IndexOutOfBoundsException
+	 *             If the index is out of range.
+	 */
+	@Override
+	public int getInt(int index) {
+		Objects.checkIndex(index, size);
+		return index == 0 ? 1 : store.get(index - 1);
 	}
 
 	/**
@@ -81,61 +152,235 @@ public class PrimListModel implements ListModel<Integer> {
 		listeners.remove(l);
 	}
 
+	/**
+	 * Returns a sequential stream of the currently stored prime numbers, without
+	 * the leading one. The stream is sized and it can be made parallel, in which
+	 * case it is split by the indices.
+	 * 
+	 * @return Stream of the stored prime numbers.
+	 */
+	public IntStream stream() {
+		return StreamSupport.intStream(new PrimeStoreSpliterator(store, 0, size - 1), false);
+	}
+
+	/**
+	 * Returns a sequential stream of all the prime numbers in the given range.
+	 * The primes are sieved lazily while the stream is consumed. The stream can
+	 * be made parallel, in which case the range is split on the sieve window
+	 * boundaries and each part is sieved separately.
+	 * 
+	 * @param from
+	 *            Lower bound of the range (inclusive).
+	 * @param to
+	 *            Upper bound of the range (exclusive).
+	 * @return Stream of the prime numbers in the range.
+	 */
+	public static LongStream primes(long from, long to) {
+		return StreamSupport.longStream(new PrimeRangeSpliterator(from, to), false);
+	}
+
+	/**
+	 * Sets the metrics where the model records the added primes and the time
+	 * its listeners need to handle the events.
+	 * 
+	 * @param metrics
+	 *            Metrics of the model, or null to stop recording.
+	 */
+	public void setMetrics(PrimMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Gets the metrics where the model records its work.
+	 * 
+	 * @return Metrics of the model, or null if there are none.
+	 */
+	public PrimMetrics getMetrics() {
+		return metrics;
+	}
+
 	/**
 	 * Method that adds the next prime number to the list.
 	 */
 	public void next() {
-		addNextPrime(currentPrime);
+		next(1);
+	}
 
-		int pos = elements.size();
-		ListDataEvent event = new ListDataEvent(this, ListDataEvent.INTERVAL_ADDED, pos, pos);
-		for (ListDataListener l : listeners) {
-			l.intervalAdded(event);
+	/**
+	 * Method that adds the given number of next prime numbers to the list. The
+	 * listeners are notified only once for the whole added interval. Adding stops
+	 * early if there are no more primes representable as an integer. In the
+	 * background mode the primes are only requested and they are added later on
+	 * the event dispatch thread.
+	 * 
+	 * @param count
+	 *            Number of prime numbers to be added.
+	 * @throws IllegalArgumentException
+	 *             If the count is negative.
+	 */
+	public void next(int count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Count must not be negative.");
+		}
+		if (producer != null) {
+			producer.request(count);
+			return;
+		}
+		int first = getSize();
+		store.ensureCapacity((int) Math.min((long) store.size() + count, PrimeSieve.INT_PRIME_COUNT));
+		for (int i = 0; i < count && sieve.hasNext(); i++) {
+			addNextPrime();
+		}
+		publish(first);
+	}
+
+	/**
+	 * Method that adds all the prime numbers up to and including the given value
+	 * to the list. The listeners are notified only once for the whole added
+	 * interval. Large ranges are sieved in parallel by the
+	 * {@link ParallelPrimeSieve}.
+	 * 
+	 * @param value
+	 *            Upper bound of the added prime numbers.
+	 * @throws IllegalStateException
+	 *             If the model is in the background mode.
+	 */
+	public void advanceTo(int value) {
+		if (producer != null) {
+			throw new IllegalStateException("Cannot advance the model in the background mode.");
+		}
+		if ((long) value - currentPrime >= PARALLEL_THRESHOLD) {
+			append(new ParallelPrimeSieve().primes(currentPrime + 1, value));
+			sieve = new PrimeSieve(value + 1L);
+			return;
 		}
+		int first = getSize();
+		while (sieve.hasNext() && sieve.peek() <= value) {
+			addNextPrime();
+		}
+		publish(first);
 	}
 
 	/**
-	 * Method that calculates the next prime number and does the background job of
-	 * adding.
+	 * Starts the background mode. The primes are then generated on a worker
+	 * thread which keeps up to the given number of primes ready ahead of the
+	 * demand, and the requested primes are added to the list on the event
+	 * dispatch thread in batches, at most once per frame. Does nothing if the
+	 * model is already in the background mode.
 	 * 
-	 * @param prime
+	 * @param prefetchDepth
+	 *            Maximum number of primes generated ahead of the demand.
+	 * @throws IllegalArgumentException
+	 *             If the prefetch depth is not positive.
+	 */
+	public void startBackground(int prefetchDepth) {
+		if (producer != null) {
+			return;
+		}
+		producer = new PrimProducer(this, new PrimeSieve(currentPrime + 1L), prefetchDepth);
+		producer.start();
+	}
+
+	/**
+	 * Stops the background mode. Requested primes which are not yet added are
+	 * discarded. Does nothing if the model is not in the background mode.
 	 */
-	private void addNextPrime(int prime) {
-		while (true) {
-			prime++;
+	public void stopBackground() {
+		if (producer == null) {
+			return;
+		}
+		producer.cancel();
+		producer = null;
+		sieve = new PrimeSieve(currentPrime + 1L);
+	}
 
-			if (prime == 2) {
-				elements.add(2);
-				currentPrime = 2;
-				return;
-			}
+	/**
+	 * Checks if the model is in the background mode.
+	 * 
+	 * @return True if the primes are generated in the background, false
+	 *         otherwise.
+	 */
+	public boolean isBackground() {
+		return producer != null;
+	}
 
-			if (isPrime(prime)) {
-				currentPrime = prime;
-				elements.add(prime);
-				return;
-			}
+	/**
+	 * Appends the prime numbers generated outside of the model's sieve to the
+	 * list and notifies the listeners once.
+	 * 
+	 * @param primes
+	 *            Consecutive prime numbers that follow the latest stored prime.
+	 */
+	void append(int[] primes) {
+		int first = getSize();
+		store.ensureCapacity(store.size() + primes.length);
+		for (int prime : primes) {
+			store.add(prime);
+		}
+		if (primes.length > 0) {
+			currentPrime = primes[primes.length - 1];
+		}
+		publish(first);
+	}
 
+	/**
+	 * Publishes the size of the storage to the readers and notifies the
+	 * listeners about the added elements.
+	 * 
+	 * @param first
+	 *            Index of the first added element.
+	 */
+	private void publish(int first) {
+		size = store.size() + 1;
+		PrimMetrics metrics = this.metrics;
+		if (metrics == null || size == first) {
+			fireIntervalAdded(first, size - 1);
+			return;
 		}
+		metrics.recordAdded(size - first, currentPrime, store.byteSize());
+		long start = System.nanoTime();
+		fireIntervalAdded(first, size - 1);
+		metrics.recordDispatch(System.nanoTime() - start);
 	}
 
 	/**
-	 * Checks if the number is prime.
+	 * Notifies all the listeners that the elements in the given interval were
+	 * added. Nothing happens if the interval is empty.
 	 * 
-	 * @param number
-	 *            Number to be checked.
-	 * @return True if the number is prime, false otherwise.
+	 * @param index0
+	 *            Index of the first added element.
+	 * @param index1
+	 *            Index of the last added element.
 	 */
-	private boolean isPrime(int number) {
-		if (number % 2 == 0) {
-			return false;
+	private void fireIntervalAdded(int index0, int index1) {
+		if (index1 < index0) {
+			return;
 		}
-		for (int i = 3; i * i <= number; i += 2) {
-			if (number % i == 0) {
-				return false;
-			}
+		ListDataEvent event = new ListDataEvent(this, ListDataEvent.INTERVAL_ADDED, index0, index1);
+		for (ListDataListener l : listeners) {
+			l.intervalAdded(event);
 		}
-		return true;
+	}
+
+	/**
+	 * Method that takes the next prime number from the sieve and does the
+	 * background job of adding.
+	 */
+	private void addNextPrime() {
+		currentPrime = sieve.next();
+		store.add(currentPrime);
+	}
+
+	/**
+	 * Stops the background mode and closes the storage of the prime numbers.
+	 * 
+	 * @throws IOException
+	 *             If the storage could not be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		stopBackground();
+		store.close();
 	}
 
 }
@@ -0,0 +1,73 @@
+package hr.fer.zemris.java.gui.prim;
+
+/**
+ * Class that offers the derived views of the prime numbers lists. The source
+ * of a view is a list of ascending primes, such as the {@link PrimListModel} or
+ * another view. Elements of the source smaller than two, like the leading one
+ * of the {@link PrimListModel}, are not treated as primes and are skipped.
+ * 
+ * @author Dinz
+ *
+ */
+public class PrimListViews {
+
+	/**
+	 * Disables the construction of the class.
+	 */
+	private PrimListViews() {
+	}
+
+	/**
+	 * Creates a view of the primes from the source which give the residue
+	 * modulo the given number, for example the primes congruent to one modulo
+	 * four.
+	 * 
+	 * @param source
+	 *            List of primes.
+	 * @param modulus
+	 *            Modulus.
+	 * @param residue
+	 *            Residue of the shown primes.
+	 * @return View of the primes with the given residue.
+	 * @throws IllegalArgumentException
+	 *             If the modulus is not positive or if the residue is not
+	 *             between zero and the modulus.
+	 */
+	public static DerivedIntListModel residue(IntListModel source, int modulus, int residue) {
+		if (modulus < 1 || residue < 0 || residue >= modulus) {
+			throw new IllegalArgumentException("Residue must be between 0 and the positive modulus.");
+		}
+		return new DerivedIntListModel(source, 0, i -> {
+			int prime = source.getInt(i);
+			return prime >= 2 && prime % modulus == residue;
+		}, source::getInt);
+	}
+
+	/**
+	 * Creates a view of the smaller primes of the twin primes from the source,
+	 * which are the primes followed by a prime greater by two.
+	 * 
+	 * @param source
+	 *            List of consecutive primes.
+	 * @return View of the twin primes.
+	 */
+	public static DerivedIntListModel twinPrimes(IntListModel source) {
+		return new DerivedIntListModel(source, 1, i -> {
+			int prime = source.getInt(i);
+			return prime >= 2 && source.getInt(i + 1) - prime == 2;
+		}, source::getInt);
+	}
+
+	/**
+	 * Creates a view of the gaps between each prime from the source and the
+	 * next one.
+	 * 
+	 * @param source
+	 *            List of primes.
+	 * @return View of the gaps between the primes.
+	 */
+	public static DerivedIntListModel gaps(IntListModel source) {
+		return new DerivedIntListModel(source, 1, i -> source.getInt(i) >= 2,
+				i -> source.getInt(i + 1) - source.getInt(i));
+	}
+}
@@ -0,0 +1,331 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Class that represents the metrics of the prime numbers list models. The
+ * models record into the metrics only when they are given one, once per added
+ * batch or read element, and the counters are {@link LongAdder}s, so the cost
+ * for the models is negligible. The generation rate is kept in buckets of one
+ * second, which cover the last minute. The metrics can be registered in the
+ * platform MBean server, so they are visible to any JMX client.
+ * 
+ * @author Dinz
+ *
+ */
+public class PrimMetrics implements PrimMetricsMBean {
+
+	/**
+	 * Number of the one-second buckets of the generation rate.
+	 */
+	private static final int BUCKETS = 60;
+
+	/**
+	 * Second of the buckets which were never used.
+	 */
+	private static final long UNUSED = Long.MIN_VALUE;
+
+	/**
+	 * Number of primes added to the model.
+	 */
+	private final LongAdder generated = new LongAdder();
+
+	/**
+	 * Number of dispatched events.
+	 */
+	private final LongAdder dispatches = new LongAdder();
+
+	/**
+	 * Total time of the dispatched events in nanoseconds.
+	 */
+	private final LongAdder dispatchNanos = new LongAdder();
+
+	/**
+	 * Longest time of a dispatched event in nanoseconds.
+	 */
+	private final LongAccumulator maxDispatchNanos = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Number of cache hits.
+	 */
+	private final LongAdder cacheHits = new LongAdder();
+
+	/**
+	 * Number of cache misses.
+	 */
+	private final LongAdder cacheMisses = new LongAdder();
+
+	/**
+	 * Number of primes added in each second, indexed by the second modulo the
+	 * number of buckets.
+	 */
+	private final long[] bucketCounts = new long[BUCKETS];
+
+	/**
+	 * Second to which each bucket belongs, or {@link #UNUSED} if the bucket was
+	 * never used.
+	 */
+	private final long[] bucketSeconds = new long[BUCKETS];
+
+	/**
+	 * Largest prime in the model.
+	 */
+	private volatile long largestPrime;
+
+	/**
+	 * Number of bytes held by the storage of the primes.
+	 */
+	private volatile long storeBytes;
+
+	/**
+	 * Name under which the metrics are registered, or null if they are not.
+	 */
+	private ObjectName name;
+
+	/**
+	 * Constructs new empty metrics.
+	 */
+	public PrimMetrics() {
+		Arrays.fill(bucketSeconds, UNUSED);
+	}
+
+	/**
+	 * Records the primes added to the model.
+	 * 
+	 * @param count
+	 *            Number of added primes.
+	 * @param largest
+	 *            Largest prime in the model.
+	 * @param bytes
+	 *            Number of bytes held by the storage of the primes.
+	 */
+	void recordAdded(int count, long largest, long bytes) {
+		generated.add(count);
+		largestPrime = largest;
+		storeBytes = bytes;
+
+		long second = currentSecond();
+		int bucket = bucket(second);
+		synchronized (bucketCounts) {
+			if (bucketSeconds[bucket] != second) {
+				bucketSeconds[bucket] = second;
+				bucketCounts[bucket] = 0;
+			}
+			bucketCounts[bucket] += count;
+		}
+	}
+
+	/**
+	 * Records the time the listeners needed to handle one event.
+	 * 
+	 * @param nanos
+	 *            Dispatch time in nanoseconds.
+	 */
+	void recordDispatch(long nanos) {
+		dispatches.increment();
+		dispatchNanos.add(nanos);
+		maxDispatchNanos.accumulate(nanos);
+	}
+
+	/**
+	 * Records an element read served from the window cache.
+	 */
+	void recordCacheHit() {
+		cacheHits.increment();
+	}
+
+	/**
+	 * Records an element read which needed sieving of a window.
+	 */
+	void recordCacheMiss() {
+		cacheMisses.increment();
+	}
+
+	/**
+	 * Registers the metrics in the platform MBean server under the given name.
+	 * Does nothing if they are already registered.
+	 * 
+	 * @param model
+	 *            Name of the model, used as the name property of the object
+	 *            name.
+	 * @throws IllegalStateException
+	 *             If the metrics could not be registered.
+	 */
+	public synchronized void register(String model) {
+		if (name != null) {
+			return;
+		}
+		try {
+			ObjectName objectName = new ObjectName(
+					"hr.fer.zemris.java.gui.prim:type=PrimMetrics,name=" + ObjectName.quote(model));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			name = objectName;
+		} catch (JMException e) {
+			throw new IllegalStateException("Could not register the metrics.", e);
+		}
+	}
+
+	/**
+	 * Removes the metrics from the platform MBean server. Does nothing if they
+	 * are not registered.
+	 * 
+	 * @throws IllegalStateException
+	 *             If the metrics could not be removed.
+	 */
+	public synchronized void unregister() {
+		if (name == null) {
+			return;
+		}
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			server.unregisterMBean(name);
+			name = null;
+		} catch (JMException e) {
+			throw new IllegalStateException("Could not unregister the metrics.", e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getPrimesGenerated() {
+		return generated.sum();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getGenerationRateLast10Seconds() {
+		return rate(10);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getGenerationRateLastMinute() {
+		return rate(BUCKETS - 1);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getLargestPrime() {
+		return largestPrime;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getStoreBytes() {
+		return storeBytes;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getDispatchCount() {
+		return dispatches.sum();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getAverageDispatchNanos() {
+		long count = dispatches.sum();
+		return count == 0 ? 0 : (double) dispatchNanos.sum() / count;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getMaxDispatchNanos() {
+		return maxDispatchNanos.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getCacheHits() {
+		return cacheHits.sum();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getCacheMisses() {
+		return cacheMisses.sum();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getCacheHitRate() {
+		long hits = cacheHits.sum();
+		long total = hits + cacheMisses.sum();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	/**
+	 * Computes the average number of primes added per second during the given
+	 * number of the last complete seconds.
+	 * 
+	 * @param seconds
+	 *            Number of seconds, smaller than the number of buckets.
+	 * @return Generation rate.
+	 */
+	private double rate(int seconds) {
+		long now = currentSecond();
+		long sum = 0;
+		synchronized (bucketCounts) {
+			for (int i = 0; i < BUCKETS; i++) {
+				if (bucketSeconds[i] == UNUSED) {
+					continue;
+				}
+				long age = now - bucketSeconds[i];
+				if (age >= 1 && age <= seconds) {
+					sum += bucketCounts[i];
+				}
+			}
+		}
+		return (double) sum / seconds;
+	}
+
+	/**
+	 * Finds the bucket of the given second.
+	 * 
+	 * @param second
+	 *            Second of the monotonic clock, which can be negative.
+	 * @return Index of the bucket.
+	 */
+	static int bucket(long second) {
+		return (int) Math.floorMod(second, (long) BUCKETS);
+	}
+
+	/**
+	 * Gets the current second of the monotonic clock. The origin of the clock
+	 * is arbitrary and it can be negative, so the second is rounded down.
+	 * 
+	 * @return Current second.
+	 */
+	private static long currentSecond() {
+		return Math.floorDiv(System.nanoTime(), 1_000_000_000L);
+	}
+}
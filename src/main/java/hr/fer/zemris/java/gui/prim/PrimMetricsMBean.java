@@ -0,0 +1,90 @@
+package hr.fer.zemris.java.gui.prim;
+
+/**
+ * Interface that represents the management interface of the
+ * {@link PrimMetrics}, which is exposed through JMX.
+ * 
+ * @author Dinz
+ *
+ */
+public interface PrimMetricsMBean {
+
+	/**
+	 * Gets the number of primes added to the model.
+	 * 
+	 * @return Number of added primes.
+	 */
+	long getPrimesGenerated();
+
+	/**
+	 * Gets the average number of primes added per second during the last ten
+	 * seconds.
+	 * 
+	 * @return Generation rate over the last ten seconds.
+	 */
+	double getGenerationRateLast10Seconds();
+
+	/**
+	 * Gets the average number of primes added per second during the last
+	 * minute.
+	 * 
+	 * @return Generation rate over the last minute.
+	 */
+	double getGenerationRateLastMinute();
+
+	/**
+	 * Gets the largest prime in the model.
+	 * 
+	 * @return Largest prime, or zero if there is none.
+	 */
+	long getLargestPrime();
+
+	/**
+	 * Gets the number of bytes held by the storage of the primes.
+	 * 
+	 * @return Number of bytes of the storage.
+	 */
+	long getStoreBytes();
+
+	/**
+	 * Gets the number of dispatched events.
+	 * 
+	 * @return Number of dispatched events.
+	 */
+	long getDispatchCount();
+
+	/**
+	 * Gets the average time the listeners needed to handle one event.
+	 * 
+	 * @return Average dispatch time in nanoseconds.
+	 */
+	double getAverageDispatchNanos();
+
+	/**
+	 * Gets the longest time the listeners needed to handle one event.
+	 * 
+	 * @return Longest dispatch time in nanoseconds.
+	 */
+	long getMaxDispatchNanos();
+
+	/**
+	 * Gets the number of element reads served from the window cache.
+	 * 
+	 * @return Number of cache hits.
+	 */
+	long getCacheHits();
+
+	/**
+	 * Gets the number of element reads which needed sieving of a window.
+	 * 
+	 * @return Number of cache misses.
+	 */
+	long getCacheMisses();
+
+	/**
+	 * Gets the ratio of the cache hits to all the element reads.
+	 * 
+	 * @return Cache hit rate, or zero if nothing was read.
+	 */
+	double getCacheHitRate();
+}
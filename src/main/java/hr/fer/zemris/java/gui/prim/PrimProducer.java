@@ -0,0 +1,213 @@
+package hr.fer.zemris.java.gui.prim;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Class that represents a background producer of the prime numbers for the
+ * {@link PrimListModel}. The primes are generated on a worker thread ahead of
+ * the demand and stored in a bounded buffer. Requested primes are published to
+ * the model on the event dispatch thread, at most once per frame, so the model
+ * and its listeners see one batch instead of many single additions. When the
+ * buffer is full, the worker sleeps until the model takes primes from it, so an
+ * idle producer uses no processor time.
+ * 
+ * @author Dinz
+ *
+ */
+class PrimProducer {
+
+	/**
+	 * Minimum time between two publications in nanoseconds (about 60 frames per
+	 * second).
+	 */
+	private static final long FRAME_NANOS = 16_000_000L;
+
+	/**
+	 * Maximum number of primes generated at once before they are stored in the
+	 * buffer.
+	 */
+	private static final int CHUNK_SIZE = 4096;
+
+	/**
+	 * Model where the primes are published.
+	 */
+	private final PrimListModel model;
+
+	/**
+	 * Sieve used by the worker thread.
+	 */
+	private final PrimeSieve sieve;
+
+	/**
+	 * Circular buffer of generated primes which are not yet published.
+	 */
+	private final int[] buffer;
+
+	/**
+	 * Index of the first buffered prime.
+	 */
+	private int head;
+
+	/**
+	 * Number of buffered primes.
+	 */
+	private int buffered;
+
+	/**
+	 * Number of primes requested but not yet published.
+	 */
+	private long demand;
+
+	/**
+	 * Flag that checks if a publication is already scheduled on the event
+	 * dispatch thread.
+	 */
+	private boolean publishScheduled;
+
+	/**
+	 * Time of the last publication.
+	 */
+	private long lastPublish = System.nanoTime() - FRAME_NANOS;
+
+	/**
+	 * Flag that checks if the producer was cancelled.
+	 */
+	private volatile boolean cancelled;
+
+	/**
+	 * Worker thread that generates the primes.
+	 */
+	private final Thread worker;
+
+	/**
+	 * Constructs a new prime producer.
+	 * 
+	 * @param model
+	 *            Model where the primes are published.
+	 * @param sieve
+	 *            Sieve positioned at the first prime to be produced.
+	 * @param prefetchDepth
+	 *            Maximum number of primes generated ahead of the demand.
+	 * @throws IllegalArgumentException
+	 *             If the prefetch depth is not positive.
+	 */
+	PrimProducer(PrimListModel model, PrimeSieve sieve, int prefetchDepth) {
+		if (prefetchDepth < 1) {
+			throw new IllegalArgumentException("Prefetch depth must be positive.");
+		}
+		this.model = model;
+		this.sieve = sieve;
+		this.buffer = new int[prefetchDepth];
+		this.worker = new Thread(this::produce, "prime-producer");
+		this.worker.setDaemon(true);
+	}
+
+	/**
+	 * Starts the worker thread.
+	 */
+	void start() {
+		worker.start();
+	}
+
+	/**
+	 * Stops the worker thread. Generated primes which are not yet published are
+	 * discarded.
+	 */
+	void cancel() {
+		cancelled = true;
+		worker.interrupt();
+	}
+
+	/**
+	 * Requests the given number of primes to be published to the model.
+	 * 
+	 * @param count
+	 *            Number of requested primes.
+	 */
+	synchronized void request(int count) {
+		demand += count;
+		publishIfDue();
+		notifyAll();
+	}
+
+	/**
+	 * Method that generates the primes until the producer is cancelled or there
+	 * are no more primes representable as an integer.
+	 */
+	private void produce() {
+		int[] chunk = new int[Math.min(CHUNK_SIZE, buffer.length)];
+		try {
+			while (!cancelled && sieve.hasNext()) {
+				int free;
+				synchronized (this) {
+					while (buffered == buffer.length) {
+						wait();
+					}
+					free = buffer.length - buffered;
+				}
+
+				int count = 0;
+				int limit = Math.min(free, chunk.length);
+				while (count < limit && sieve.hasNext()) {
+					chunk[count++] = sieve.next();
+				}
+
+				synchronized (this) {
+					for (int i = 0; i < count; i++) {
+						buffer[(head + buffered++) % buffer.length] = chunk[i];
+					}
+					publishIfDue();
+				}
+			}
+		} catch (InterruptedException e) {
+			// cancelled
+		}
+	}
+
+	/**
+	 * Schedules a publication on the event dispatch thread if there are requested
+	 * primes in the buffer. If the last publication happened less than one frame
+	 * ago, the publication is delayed by a timer until the frame ends. Must be
+	 * called while holding the lock.
+	 */
+	private void publishIfDue() {
+		if (demand == 0 || buffered == 0 || publishScheduled || cancelled) {
+			return;
+		}
+		publishScheduled = true;
+		long delay = FRAME_NANOS - (System.nanoTime() - lastPublish);
+		if (delay <= 0) {
+			SwingUtilities.invokeLater(this::publish);
+		} else {
+			Timer timer = new Timer((int) ((delay + 999_999) / 1_000_000), e -> publish());
+			timer.setRepeats(false);
+			timer.start();
+		}
+	}
+
+	/**
+	 * Moves the requested primes from the buffer to the model. Runs on the event
+	 * dispatch thread.
+	 */
+	private void publish() {
+		int[] primes;
+		synchronized (this) {
+			publishScheduled = false;
+			if (cancelled) {
+				return;
+			}
+			int count = (int) Math.min(demand, buffered);
+			primes = new int[count];
+			for (int i = 0; i < count; i++) {
+				primes[i] = buffer[head];
+				head = (head + 1) % buffer.length;
+			}
+			buffered -= count;
+			demand -= count;
+			lastPublish = System.nanoTime();
+			notifyAll();
+		}
+		model.append(primes);
+	}
+}
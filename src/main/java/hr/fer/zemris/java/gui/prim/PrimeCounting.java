@@ -0,0 +1,258 @@
+package hr.fer.zemris.java.gui.prim;
+
+/**
+ * Class that offers counting of the prime numbers without enumerating them.
+ * The prime counting function is computed by the Lucy_Hedgehog algorithm,
+ * which only keeps the counts for the values <i>x / i</i>, so it needs
+ * <i>O(x^(3/4))</i> time and <i>O(x^(1/2))</i> memory. Only the odd numbers
+ * are counted and the primes above the fourth root are handled together, as
+ * the numbers with two such prime factors. The n-th prime is found
+ * by counting the primes up to an estimate of it and sieving the rest.
+ * 
+ * @author Dinz
+ *
+ */
+public class PrimeCounting {
+
+	/**
+	 * Largest number up to which the primes can be counted.
+	 */
+	public static final long COUNT_LIMIT = 1L << 50;
+
+	/**
+	 * Euler-Mascheroni constant.
+	 */
+	private static final double EULER_GAMMA = 0.5772156649015329;
+
+	/**
+	 * Disables the construction of the class.
+	 */
+	private PrimeCounting() {
+	}
+
+	/**
+	 * Counts the prime numbers smaller than or equal to the given number.
+	 * 
+	 * @param x
+	 *            Upper bound of the counted primes.
+	 * @return Number of primes up to the given number.
+	 * @throws IllegalArgumentException
+	 *             If the number is greater than {@link #COUNT_LIMIT}.
+	 */
+	public static long primeCount(long x) {
+		if (x > COUNT_LIMIT) {
+			throw new IllegalArgumentException("Number must not be greater than " + COUNT_LIMIT + ".");
+		}
+		if (x < 2) {
+			return 0;
+		}
+		if (x == 2) {
+			return 1;
+		}
+		int root = (int) isqrt(x);
+
+		// only the odd numbers are counted, so the counts are kept for the
+		// halves of the values; small[i] counts the odd numbers 3..2i+1 which
+		// are not crossed off yet and large[k] does the same for the numbers
+		// up to x / rough[k], where rough holds the numbers which have no
+		// prime factor among the processed primes
+		int size = (root + 1) / 2;
+		int[] small = new int[size];
+		int[] rough = new int[size];
+		long[] large = new long[size];
+		for (int i = 0; i < size; i++) {
+			small[i] = i;
+			rough[i] = 2 * i + 1;
+			large[i] = (x / rough[i] - 1) / 2;
+		}
+		boolean[] crossed = new boolean[root + 1];
+
+		int processed = 0;
+		for (int p = 3; p <= root; p += 2) {
+			if (crossed[p]) {
+				continue;
+			}
+			int square = p * p;
+			if ((long) square * square > x) {
+				break;
+			}
+			crossed[p] = true;
+			for (int i = square; i <= root; i += 2 * p) {
+				crossed[i] = true;
+			}
+
+			int kept = 0;
+			for (int k = 0; k < size; k++) {
+				int i = rough[k];
+				if (crossed[i]) {
+					continue;
+				}
+				long d = (long) i * p;
+				long crossedOff = d <= root ? large[small[(int) (d >> 1)] - processed]
+						: small[half(divide(x, d))];
+				large[kept] = large[k] - crossedOff + processed;
+				rough[kept++] = i;
+			}
+			size = kept;
+
+			for (int i = half(root), j = ((root / p) - 1) | 1; j >= p; j -= 2) {
+				int c = small[j >> 1] - processed;
+				for (int e = (j * p) >> 1; i >= e; i--) {
+					small[i] -= c;
+				}
+			}
+			processed++;
+		}
+
+		// the remaining rough numbers are primes greater than the fourth root,
+		// so what is left are the numbers with exactly two such prime factors
+		long count = large[0] + (long) (size + 2 * (processed - 1)) * (size - 1) / 2;
+		for (int k = 1; k < size; k++) {
+			count -= large[k];
+		}
+		for (int l = 1; l < size; l++) {
+			int q = rough[l];
+			long m = x / q;
+			int e = small[half((int) (m / q))] - processed;
+			if (e < l + 1) {
+				break;
+			}
+			long t = 0;
+			for (int k = l + 1; k <= e; k++) {
+				t += small[half(divide(m, rough[k]))];
+			}
+			count += t - (long) (e - l) * (processed + l - 1);
+		}
+		return count + 1;
+	}
+
+	/**
+	 * Divides the numbers in the floating point arithmetic, which is faster
+	 * than the integer division. The quotient is exact for the dividends up to
+	 * {@link #COUNT_LIMIT}, since their distance from the next multiple of the
+	 * divisor is never lost in the rounding.
+	 * 
+	 * @param dividend
+	 *            Non-negative dividend.
+	 * @param divisor
+	 *            Positive divisor.
+	 * @return Quotient rounded down.
+	 */
+	private static int divide(long dividend, long divisor) {
+		return (int) ((double) dividend / divisor);
+	}
+
+	/**
+	 * Gets the index of the odd number in the arrays which only keep the odd
+	 * numbers.
+	 * 
+	 * @param n
+	 *            Positive number.
+	 * @return Index of the greatest odd number not greater than the given one.
+	 */
+	private static int half(int n) {
+		return (n - 1) >> 1;
+	}
+
+	/**
+	 * Finds the n-th prime number, counting from one. The primes are counted up
+	 * to the estimate of the n-th prime, which is lowered until it is below it,
+	 * and the remaining primes are sieved.
+	 * 
+	 * @param n
+	 *            Ordinal number of the prime.
+	 * @return N-th prime number.
+	 * @throws IllegalArgumentException
+	 *             If the ordinal number is not positive or if the prime would
+	 *             be greater than {@link #COUNT_LIMIT}.
+	 */
+	public static long nthPrime(long n) {
+		if (n < 1) {
+			throw new IllegalArgumentException("Ordinal number must be positive.");
+		}
+		long x = estimate(n);
+		if (x >= COUNT_LIMIT) {
+			throw new IllegalArgumentException("Prime is greater than " + COUNT_LIMIT + ".");
+		}
+		long count = primeCount(x);
+		while (count >= n) {
+			x = Math.max(0, x - (long) ((count - n + 1) * Math.log(x + 2) * 2) - 64);
+			count = primeCount(x);
+		}
+
+		LongPrimeSieve sieve = new LongPrimeSieve(x + 1);
+		long prime = sieve.next();
+		for (; count + 1 < n; count++) {
+			prime = sieve.next();
+		}
+		return prime;
+	}
+
+	/**
+	 * Estimates the n-th prime number as the inverse of the logarithmic
+	 * integral, which is found by the Newton's method.
+	 * 
+	 * @param n
+	 *            Ordinal number of the prime.
+	 * @return Estimate of the n-th prime number.
+	 */
+	static long estimate(long n) {
+		if (n < 6) {
+			return 2;
+		}
+		double log = Math.log(n);
+		double x = n * (log + Math.log(log) - 1);
+		for (int i = 0; i < 20; i++) {
+			double step = (logarithmicIntegral(x) - n) * Math.log(x);
+			x -= step;
+			if (Math.abs(step) < 0.5) {
+				break;
+			}
+		}
+		return (long) Math.min(COUNT_LIMIT, Math.max(2, x));
+	}
+
+	/**
+	 * Computes the logarithmic integral by the Ramanujan's series.
+	 * 
+	 * @param x
+	 *            Number greater than one.
+	 * @return Logarithmic integral of the number.
+	 */
+	static double logarithmicIntegral(double x) {
+		double log = Math.log(x);
+		double sum = 0;
+		double term = -2;
+		double inner = 0;
+		for (int k = 1; k < 200; k++) {
+			term *= -log / (2 * k);
+			if ((k & 1) == 1) {
+				inner += 1.0 / k;
+			}
+			double addend = term * inner;
+			sum += addend;
+			if (Math.abs(addend) < 1e-17 * Math.abs(sum)) {
+				break;
+			}
+		}
+		return EULER_GAMMA + Math.log(log) + Math.sqrt(x) * sum;
+	}
+
+	/**
+	 * Computes the integer square root of the non-negative number.
+	 * 
+	 * @param x
+	 *            Non-negative number.
+	 * @return Largest number whose square is not greater than the given number.
+	 */
+	static long isqrt(long x) {
+		long root = (long) Math.sqrt(x);
+		while (root * root > x) {
+			root--;
+		}
+		while ((root + 1) * (root + 1) <= x) {
+			root++;
+		}
+		return root;
+	}
+}
@@ -0,0 +1,150 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Class that represents an exporter which writes the first prime numbers to a
+ * file. The primes are streamed from a {@link LongPrimeSieve} straight into a
+ * direct buffer which is written to a file channel whenever it fills up, so no
+ * objects are created for the single primes and the list of primes is never
+ * held in the memory.
+ * 
+ * @author Dinz
+ *
+ */
+public class PrimeExporter {
+
+	/**
+	 * Size of the output buffer in bytes.
+	 */
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	/**
+	 * Maximum number of bytes written for one prime.
+	 */
+	private static final int MAX_PRIME_BYTES = 20;
+
+	/**
+	 * Enumeration of the formats of the exported file.
+	 * 
+	 * @author Dinz
+	 *
+	 */
+	public enum Format {
+		/**
+		 * Primes in decimal notation, one per line.
+		 */
+		TEXT,
+		/**
+		 * Primes as little-endian 64-bit integers.
+		 */
+		BINARY
+	}
+
+	/**
+	 * Format of the exported file.
+	 */
+	private final Format format;
+
+	/**
+	 * Digits of the prime which is being written, filled from the end.
+	 */
+	private final byte[] digits = new byte[MAX_PRIME_BYTES];
+
+	/**
+	 * Constructs a new prime exporter.
+	 * 
+	 * @param format
+	 *            Format of the exported file.
+	 */
+	public PrimeExporter(Format format) {
+		this.format = Objects.requireNonNull(format);
+	}
+
+	/**
+	 * Writes the given number of the first primes to the file. The file is
+	 * created or replaced.
+	 * 
+	 * @param count
+	 *            Number of the primes.
+	 * @param file
+	 *            Path of the file.
+	 * @return Number of written bytes.
+	 * @throws IllegalArgumentException
+	 *             If the count is negative.
+	 * @throws IOException
+	 *             If the file could not be written.
+	 */
+	public long export(long count, Path file) throws IOException {
+		if (count < 0) {
+			throw new IllegalArgumentException("Count must not be negative.");
+		}
+		ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		LongPrimeSieve sieve = new LongPrimeSieve(2);
+		long written = 0;
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			for (long i = 0; i < count; i++) {
+				if (buffer.remaining() < MAX_PRIME_BYTES) {
+					written += drain(buffer, channel);
+				}
+				long prime = sieve.next();
+				if (format == Format.BINARY) {
+					buffer.putLong(prime);
+				} else {
+					putDecimal(buffer, prime);
+				}
+			}
+			written += drain(buffer, channel);
+		}
+		return written;
+	}
+
+	/**
+	 * Writes the prime in decimal notation followed by a new line to the
+	 * buffer.
+	 * 
+	 * @param buffer
+	 *            Output buffer.
+	 * @param prime
+	 *            Prime to be written.
+	 */
+	private void putDecimal(ByteBuffer buffer, long prime) {
+		int position = digits.length;
+		digits[--position] = '\n';
+		do {
+			long quotient = prime / 10;
+			digits[--position] = (byte) ('0' + (prime - quotient * 10));
+			prime = quotient;
+		} while (prime != 0);
+		buffer.put(digits, position, digits.length - position);
+	}
+
+	/**
+	 * Writes the content of the buffer to the channel and clears the buffer.
+	 * 
+	 * @param buffer
+	 *            Output buffer.
+	 * @param channel
+	 *            Channel of the file.
+	 * @return Number of written bytes.
+	 * @throws IOException
+	 *             If the bytes could not be written.
+	 */
+	private static long drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+		buffer.flip();
+		long written = buffer.remaining();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+		return written;
+	}
+}
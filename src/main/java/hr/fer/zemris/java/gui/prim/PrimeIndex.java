@@ -0,0 +1,165 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Class that represents an index of all the prime numbers below 2^32, which
+ * answers the primality queries in constant time. The index is a bitset with
+ * one bit per odd number, divided into the same segments as in
+ * {@link PrimeSieve}. A segment is sieved the first time a query touches it,
+ * so the whole index takes 256 MiB only when it is used over the whole range.
+ * The index can be queried from many threads at once.
+ * 
+ * @author Dinz
+ *
+ */
+public class PrimeIndex {
+
+	/**
+	 * Upper bound of the indexed numbers (exclusive).
+	 */
+	public static final long LIMIT = 1L << 32;
+
+	/**
+	 * Number of numbers covered by one segment.
+	 */
+	private static final long SEGMENT_LENGTH = 2L * PrimeSieve.SEGMENT_BITS;
+
+	/**
+	 * Number of segments needed to cover all the indexed numbers.
+	 */
+	private static final int SEGMENT_COUNT = (int) (LIMIT / SEGMENT_LENGTH);
+
+	/**
+	 * Odd primes up to the square root of the {@link #LIMIT}.
+	 */
+	private static final int[] BASE_PRIMES = PrimeSieve.oddPrimesUpTo(1 << 16);
+
+	/**
+	 * Sieved segments, or null for the segments which were not yet needed. Set
+	 * bit marks an odd number which is not prime.
+	 */
+	private final AtomicReferenceArray<long[]> segments = new AtomicReferenceArray<>(SEGMENT_COUNT);
+
+	/**
+	 * Checks if the number is prime.
+	 * 
+	 * @param n
+	 *            Number to be checked.
+	 * @return True if the number is prime, false otherwise.
+	 * @throws IllegalArgumentException
+	 *             If the number is not between zero and {@link #LIMIT}.
+	 */
+	public boolean isPrime(long n) {
+		checkRange(n);
+		if ((n & 1) == 0) {
+			return n == 2;
+		}
+		long bit = n >>> 1;
+		long[] composite = segment((int) (bit / PrimeSieve.SEGMENT_BITS));
+		int index = (int) (bit % PrimeSieve.SEGMENT_BITS);
+		return (composite[index >>> 6] & (1L << index)) == 0;
+	}
+
+	/**
+	 * Finds the smallest prime greater than the given number.
+	 * 
+	 * @param n
+	 *            Number after which the prime is searched.
+	 * @return Next prime number.
+	 * @throws IllegalArgumentException
+	 *             If the number is not between zero and {@link #LIMIT}.
+	 * @throws NoSuchElementException
+	 *             If there is no greater prime below the {@link #LIMIT}.
+	 */
+	public long nextPrime(long n) {
+		checkRange(n);
+		if (n < 2) {
+			return 2;
+		}
+		long bit = (n + 1) >>> 1;
+		for (int s = (int) (bit / PrimeSieve.SEGMENT_BITS); s < SEGMENT_COUNT; s++) {
+			long[] composite = segment(s);
+			int index = (int) Math.max(0, bit - (long) s * PrimeSieve.SEGMENT_BITS);
+			int word = index >>> 6;
+			long w = ~composite[word] & (-1L << index);
+			while (w == 0 && ++word < PrimeSieve.SEGMENT_WORDS) {
+				w = ~composite[word];
+			}
+			if (w != 0) {
+				return 1 + 2 * ((long) s * PrimeSieve.SEGMENT_BITS + (word << 6) + Long.numberOfTrailingZeros(w));
+			}
+		}
+		throw new NoSuchElementException("There is no prime between " + n + " and " + LIMIT + ".");
+	}
+
+	/**
+	 * Finds the largest prime smaller than the given number.
+	 * 
+	 * @param n
+	 *            Number before which the prime is searched.
+	 * @return Previous prime number.
+	 * @throws IllegalArgumentException
+	 *             If the number is not between zero and {@link #LIMIT}.
+	 * @throws NoSuchElementException
+	 *             If the number is not greater than two.
+	 */
+	public long prevPrime(long n) {
+		checkRange(n);
+		if (n <= 3) {
+			if (n == 3) {
+				return 2;
+			}
+			throw new NoSuchElementException("There is no prime smaller than " + n + ".");
+		}
+		long bit = (n - 2) >>> 1;
+		for (int s = (int) (bit / PrimeSieve.SEGMENT_BITS); s >= 0; s--) {
+			long[] composite = segment(s);
+			int index = (int) Math.min(PrimeSieve.SEGMENT_BITS - 1, bit - (long) s * PrimeSieve.SEGMENT_BITS);
+			int word = index >>> 6;
+			long w = ~composite[word] & (-1L >>> (63 - (index & 63)));
+			while (w == 0 && --word >= 0) {
+				w = ~composite[word];
+			}
+			if (w != 0) {
+				return 1 + 2 * ((long) s * PrimeSieve.SEGMENT_BITS + (word << 6) + 63 - Long.numberOfLeadingZeros(w));
+			}
+		}
+		return 2;
+	}
+
+	/**
+	 * Gets the sieved segment, sieving it first if it was not needed before. If
+	 * two threads sieve the same segment at once, the first result is kept.
+	 * 
+	 * @param s
+	 *            Index of the segment.
+	 * @return Bits of the sieved segment.
+	 */
+	private long[] segment(int s) {
+		long[] composite = segments.get(s);
+		if (composite == null) {
+			composite = new long[PrimeSieve.SEGMENT_WORDS];
+			PrimeSieve.sieveSegment(composite, 1 + s * SEGMENT_LENGTH, BASE_PRIMES);
+			if (!segments.compareAndSet(s, null, composite)) {
+				composite = segments.get(s);
+			}
+		}
+		return composite;
+	}
+
+	/**
+	 * Checks if the number can be queried.
+	 * 
+	 * @param n
+	 *            Number to be checked.
+	 * @throws IllegalArgumentException
+	 *             If the number is not between zero and {@link #LIMIT}.
+	 */
+	private static void checkRange(long n) {
+		if (n < 0 || n >= LIMIT) {
+			throw new IllegalArgumentException("Number must be between 0 and " + (LIMIT - 1) + ".");
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/**
+ * Class that represents a spliterator over the prime numbers in a range. The
+ * primes are generated lazily by a {@link LongPrimeSieve}. The range is split
+ * only on the boundaries of the sieve windows, so each part of a parallel
+ * stream sieves its own windows on its own core.
+ * 
+ * @author Dinz
+ *
+ */
+class PrimeRangeSpliterator implements Spliterator.OfLong {
+
+	/**
+	 * Number of numbers covered by one sieve window.
+	 */
+	private static final long WINDOW_LENGTH = 2L * LongPrimeSieve.WINDOW_BITS;
+
+	/**
+	 * Lower bound of the remaining range (inclusive).
+	 */
+	private long from;
+
+	/**
+	 * Upper bound of the range (exclusive).
+	 */
+	private final long to;
+
+	/**
+	 * Sieve which generates the primes, created on the first traversal.
+	 */
+	private LongPrimeSieve sieve;
+
+	/**
+	 * Constructs a new spliterator over the primes in the range.
+	 * 
+	 * @param from
+	 *            Lower bound of the range (inclusive).
+	 * @param to
+	 *            Upper bound of the range (exclusive).
+	 */
+	PrimeRangeSpliterator(long from, long to) {
+		this.from = Math.max(from, 0);
+		this.to = Math.max(to, this.from);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean tryAdvance(LongConsumer action) {
+		if (sieve == null) {
+			sieve = new LongPrimeSieve(from);
+		}
+		if (!sieve.hasNext() || sieve.peek() >= to) {
+			from = to;
+			return false;
+		}
+		action.accept(sieve.next());
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void forEachRemaining(LongConsumer action) {
+		if (sieve == null) {
+			sieve = new LongPrimeSieve(from);
+		}
+		while (sieve.hasNext() && sieve.peek() < to) {
+			action.accept(sieve.next());
+		}
+		from = to;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The range is split in the middle, rounded down to a window boundary. The
+	 * spliterator can not be split after its traversal started.
+	 */
+	@Override
+	public Spliterator.OfLong trySplit() {
+		if (sieve != null) {
+			return null;
+		}
+		long middle = from + ((to - from) >>> 1);
+		middle -= middle % WINDOW_LENGTH;
+		if (middle <= from) {
+			return null;
+		}
+		PrimeRangeSpliterator prefix = new PrimeRangeSpliterator(from, middle);
+		from = middle;
+		return prefix;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The estimate is based on the prime number theorem, since the exact number
+	 * of primes is not known before the range is sieved.
+	 */
+	@Override
+	public long estimateSize() {
+		long length = to - from;
+		if (length <= 0) {
+			return 0;
+		}
+		return (long) (length / Math.max(1, Math.log(to))) + 1;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int characteristics() {
+		return ORDERED | DISTINCT | SORTED | NONNULL | IMMUTABLE;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @return Null, since the primes are in their natural order.
+	 */
+	@Override
+	public Comparator<? super Long> getComparator() {
+		return null;
+	}
+}
@@ -0,0 +1,335 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Class that represents a segmented sieve of Eratosthenes which generates prime
+ * numbers in ascending order. Only odd numbers are stored in the sieve and they
+ * are sieved in segments small enough to stay in the processor cache, so the
+ * amortized cost of fetching the next prime is just a short bit scan.
+ * 
+ * @author Dinz
+ *
+ */
+public class PrimeSieve {
+
+	/**
+	 * Number of 64-bit words in one segment (32 KiB).
+	 */
+	static final int SEGMENT_WORDS = 4096;
+
+	/**
+	 * Number of odd numbers represented by one segment.
+	 */
+	static final int SEGMENT_BITS = SEGMENT_WORDS * 64;
+
+	/**
+	 * Largest prime number that can be stored in an integer.
+	 */
+	static final int MAX_INT_PRIME = Integer.MAX_VALUE;
+
+	/**
+	 * Number of prime numbers representable as an integer.
+	 */
+	static final int INT_PRIME_COUNT = 105_097_565;
+
+	/**
+	 * Odd prime numbers up to the square root of the largest integer. These are
+	 * the only primes needed for sieving the whole integer range.
+	 */
+	static final int[] BASE_PRIMES = oddPrimesUpTo(46341);
+
+	/**
+	 * Bits of the current segment. Set bit marks a composite odd number.
+	 */
+	private final long[] composite = new long[SEGMENT_WORDS];
+
+	/**
+	 * Odd number represented by the first bit of the current segment.
+	 */
+	private long low;
+
+	/**
+	 * Index of the next bit to be inspected in the current segment.
+	 */
+	private int bit;
+
+	/**
+	 * Flag that checks if the number 2 still has to be returned.
+	 */
+	private boolean twoPending;
+
+	/**
+	 * Prime number found by {@link #hasNext()} which was not yet returned, or zero
+	 * if there is none.
+	 */
+	private int peeked;
+
+	/**
+	 * Constructs a new prime sieve which starts from the first prime number.
+	 */
+	public PrimeSieve() {
+		this(2);
+	}
+
+	/**
+	 * Constructs a new prime sieve which returns the primes greater than or equal
+	 * to the given number.
+	 * 
+	 * @param from
+	 *            Lower bound of the generated primes.
+	 */
+	public PrimeSieve(long from) {
+		twoPending = from <= 2;
+		long start = Math.max(from, 3);
+		low = (start & 1) == 0 ? start + 1 : start;
+		bit = 0;
+		if (low <= MAX_INT_PRIME) {
+			sieveSegment();
+		}
+	}
+
+	/**
+	 * Checks if there is a next prime number representable as an integer.
+	 * 
+	 * @return True if there is a next prime number, false otherwise.
+	 */
+	public boolean hasNext() {
+		if (peeked == 0) {
+			peeked = advance();
+		}
+		return peeked > 0;
+	}
+
+	/**
+	 * Returns the next prime number without consuming it.
+	 * 
+	 * @return Next prime number.
+	 * @throws NoSuchElementException
+	 *             If the next prime is not representable as an integer.
+	 */
+	public int peek() {
+		if (!hasNext()) {
+			throw new NoSuchElementException("Next prime is not representable as an integer.");
+		}
+		return peeked;
+	}
+
+	/**
+	 * Returns the next prime number.
+	 * 
+	 * @return Next prime number.
+	 * @throws NoSuchElementException
+	 *             If the next prime is not representable as an integer.
+	 */
+	public int next() {
+		int prime = peek();
+		peeked = 0;
+		return prime;
+	}
+
+	/**
+	 * Finds the next prime number in the sieve.
+	 * 
+	 * @return Next prime number, or -1 if it is not representable as an integer.
+	 */
+	private int advance() {
+		if (twoPending) {
+			twoPending = false;
+			return 2;
+		}
+
+		while (low <= MAX_INT_PRIME) {
+			int word = bit >>> 6;
+			if (word < SEGMENT_WORDS) {
+				long bits = ~composite[word] & (-1L << (bit & 63));
+				while (bits == 0 && ++word < SEGMENT_WORDS) {
+					bits = ~composite[word];
+				}
+				if (word < SEGMENT_WORDS) {
+					int found = (word << 6) + Long.numberOfTrailingZeros(bits);
+					bit = found + 1;
+					long prime = low + 2L * found;
+					if (prime > MAX_INT_PRIME) {
+						break;
+					}
+					return (int) prime;
+				}
+			}
+			low += 2L * SEGMENT_BITS;
+			bit = 0;
+			if (low <= MAX_INT_PRIME) {
+				sieveSegment();
+			}
+		}
+
+		low = MAX_INT_PRIME + 1L;
+		return -1;
+	}
+
+	/**
+	 * Sieves the segment that starts with the current lower bound.
+	 */
+	private void sieveSegment() {
+		sieveSegment(composite, low);
+	}
+
+	/**
+	 * Sieves one segment of odd numbers. The multiples of the wheel primes are
+	 * marked by the {@link Wheel} pattern and the others are crossed off one by
+	 * one. After sieving, the bit of every odd composite number (and the number
+	 * one) in the segment is set.
+	 * 
+	 * @param composite
+	 *            Bits of the segment, {@link #SEGMENT_WORDS} words long.
+	 * @param low
+	 *            Odd number represented by the first bit of the segment.
+	 */
+	static void sieveSegment(long[] composite, long low) {
+		sieveSegment(composite, low, BASE_PRIMES);
+	}
+
+	/**
+	 * Sieves one segment of odd numbers by the given odd primes, which have to
+	 * include all the odd primes up to the square root of the largest number in
+	 * the segment.
+	 * 
+	 * @param composite
+	 *            Bits of the segment, {@link #SEGMENT_WORDS} words long.
+	 * @param low
+	 *            Odd number represented by the first bit of the segment.
+	 * @param basePrimes
+	 *            Odd primes in ascending order, starting with the wheel primes.
+	 */
+	static void sieveSegment(long[] composite, long low, int[] basePrimes) {
+		Wheel.presieve(composite, SEGMENT_WORDS, low);
+		long high = low + 2L * (SEGMENT_BITS - 1);
+		if (low == 1) {
+			composite[0] |= 1;
+		}
+
+		for (int k = Wheel.PRIMES.length; k < basePrimes.length; k++) {
+			int p = basePrimes[k];
+			long square = (long) p * p;
+			if (square > high) {
+				break;
+			}
+			long start = square;
+			if (start < low) {
+				start = (low + p - 1) / p * p;
+				if ((start & 1) == 0) {
+					start += p;
+				}
+			}
+			for (long i = (start - low) >>> 1; i < SEGMENT_BITS; i += p) {
+				composite[(int) (i >>> 6)] |= 1L << i;
+			}
+		}
+	}
+
+	/**
+	 * Counts the odd primes among the first bits of a sieved segment.
+	 * 
+	 * @param composite
+	 *            Bits of the sieved segment.
+	 * @param bits
+	 *            Number of leading bits to be inspected.
+	 * @return Number of odd primes.
+	 */
+	static int count(long[] composite, long bits) {
+		int count = 0;
+		for (int word = 0; word < SEGMENT_WORDS; word++) {
+			count += Long.bitCount(~composite[word] & mask(word, bits));
+		}
+		return count;
+	}
+
+	/**
+	 * Stores the odd primes among the first bits of a sieved segment to the
+	 * array, skipping the given number of leading primes.
+	 * 
+	 * @param composite
+	 *            Bits of the sieved segment.
+	 * @param low
+	 *            Odd number represented by the first bit of the segment.
+	 * @param bits
+	 *            Number of leading bits to be inspected.
+	 * @param skip
+	 *            Number of leading primes which are not stored.
+	 * @param out
+	 *            Array where the primes are stored.
+	 * @param offset
+	 *            Index in the array of the first stored prime.
+	 * @return Number of stored primes, limited by the free space in the array.
+	 */
+	static int collect(long[] composite, long low, long bits, int skip, int[] out, int offset) {
+		int index = offset;
+		for (int word = 0; word < SEGMENT_WORDS && index < out.length; word++) {
+			long w = ~composite[word] & mask(word, bits);
+			if (skip > 0) {
+				int inWord = Long.bitCount(w);
+				if (skip >= inWord) {
+					skip -= inWord;
+					continue;
+				}
+				for (; skip > 0; skip--) {
+					w &= w - 1;
+				}
+			}
+			while (w != 0 && index < out.length) {
+				out[index++] = (int) (low + 2L * ((word << 6) + Long.numberOfTrailingZeros(w)));
+				w &= w - 1;
+			}
+		}
+		return index - offset;
+	}
+
+	/**
+	 * Computes the mask of the bits of the word which lie among the first bits
+	 * of a segment.
+	 * 
+	 * @param word
+	 *            Index of the word.
+	 * @param bits
+	 *            Number of leading bits of the segment.
+	 * @return Mask of the bits of the word.
+	 */
+	static long mask(int word, long bits) {
+		long remaining = bits - ((long) word << 6);
+		if (remaining >= 64) {
+			return -1L;
+		}
+		return remaining <= 0 ? 0 : (1L << remaining) - 1;
+	}
+
+	/**
+	 * Computes all odd prime numbers up to the given limit using the basic sieve
+	 * of Eratosthenes.
+	 * 
+	 * @param limit
+	 *            Upper bound (inclusive).
+	 * @return Odd prime numbers in ascending order.
+	 */
+	static int[] oddPrimesUpTo(int limit) {
+		boolean[] composite = new boolean[limit + 1];
+		int count = 0;
+		for (int i = 3; i <= limit; i += 2) {
+			if (composite[i]) {
+				continue;
+			}
+			count++;
+			for (long j = (long) i * i; j <= limit; j += 2 * i) {
+				composite[(int) j] = true;
+			}
+		}
+
+		int[] primes = new int[count];
+		int index = 0;
+		for (int i = 3; i <= limit; i += 2) {
+			if (!composite[i]) {
+				primes[index++] = i;
+			}
+		}
+		return primes;
+	}
+}
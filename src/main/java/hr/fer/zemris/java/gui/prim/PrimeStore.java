@@ -0,0 +1,70 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Interface that represents a storage of consecutive prime numbers used by the
+ * {@link PrimListModel}. Primes are only appended to the storage, starting with
+ * the prime two. A storage is written by a single thread, but it has to
+ * allow other threads to read the primes while it grows: a prime which was
+ * added before the reader learned the size through a happens-before edge must
+ * be readable, even if the storage was enlarged in the meantime.
+ * 
+ * @author Dinz
+ *
+ */
+public interface PrimeStore extends Closeable {
+
+	/**
+	 * Gets the number of stored primes.
+	 * 
+	 * @return Number of stored primes.
+	 */
+	int size();
+
+	/**
+	 * Gets the stored prime at the given index.
+	 * 
+	 * @param index
+	 *            Index of the prime, between zero and {@link #size()} - 1.
+	 * @return Prime at the given index.
+	 */
+	int get(int index);
+
+	/**
+	 * Appends the prime to the storage.
+	 * 
+	 * @param prime
+	 *            Prime which follows the last stored prime.
+	 */
+	void add(int prime);
+
+	/**
+	 * Gets the number of bytes held by the storage, including the reserved
+	 * capacity.
+	 * 
+	 * @return Number of bytes of the storage.
+	 */
+	long byteSize();
+
+	/**
+	 * Prepares the storage for holding at least the given number of primes. It
+	 * is only a hint and it does nothing by default.
+	 * 
+	 * @param capacity
+	 *            Expected number of stored primes.
+	 */
+	default void ensureCapacity(int capacity) {
+	}
+
+	/**
+	 * Releases the resources held by the storage. It does nothing by default.
+	 * 
+	 * @throws IOException
+	 *             If the resources could not be released.
+	 */
+	@Override
+	default void close() throws IOException {
+	}
+}
@@ -0,0 +1,108 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Class that represents a sized spliterator over a part of a
+ * {@link PrimeStore}. It is split in halves by the indices.
+ * 
+ * @author Dinz
+ *
+ */
+class PrimeStoreSpliterator implements Spliterator.OfInt {
+
+	/**
+	 * Storage of the prime numbers.
+	 */
+	private final PrimeStore store;
+
+	/**
+	 * Index of the next prime.
+	 */
+	private int index;
+
+	/**
+	 * Index after the last prime (exclusive).
+	 */
+	private final int fence;
+
+	/**
+	 * Constructs a new spliterator over the part of the storage.
+	 * 
+	 * @param store
+	 *            Storage of the prime numbers.
+	 * @param index
+	 *            Index of the first prime (inclusive).
+	 * @param fence
+	 *            Index after the last prime (exclusive).
+	 */
+	PrimeStoreSpliterator(PrimeStore store, int index, int fence) {
+		this.store = store;
+		this.index = index;
+		this.fence = fence;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean tryAdvance(IntConsumer action) {
+		if (index >= fence) {
+			return false;
+		}
+		action.accept(store.get(index++));
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void forEachRemaining(IntConsumer action) {
+		for (; index < fence; index++) {
+			action.accept(store.get(index));
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Spliterator.OfInt trySplit() {
+		int middle = (index + fence) >>> 1;
+		if (middle <= index) {
+			return null;
+		}
+		PrimeStoreSpliterator prefix = new PrimeStoreSpliterator(store, index, middle);
+		index = middle;
+		return prefix;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long estimateSize() {
+		return fence - index;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int characteristics() {
+		return ORDERED | DISTINCT | SORTED | NONNULL | SIZED | SUBSIZED;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @return Null, since the primes are in their natural order.
+	 */
+	@Override
+	public Comparator<? super Integer> getComparator() {
+		return null;
+	}
+}
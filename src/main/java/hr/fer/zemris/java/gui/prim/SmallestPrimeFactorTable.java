@@ -0,0 +1,270 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Class that represents a table of the smallest prime factors of the odd
+ * numbers up to a limit. The table is built once by a linear sieve, which sets
+ * the factor of every odd composite number exactly once. The smallest prime
+ * factor of a composite number is not greater than its square root, so it fits
+ * in a char and the table needs one byte per number. The numbers are then
+ * factorized by dividing them by their smallest prime factors, in
+ * <i>O(log n)</i> steps.
+ * 
+ * @author Dinz
+ *
+ */
+public class SmallestPrimeFactorTable {
+
+	/**
+	 * Maximum number of prime factors of an integer, counted with their
+	 * multiplicities.
+	 */
+	public static final int MAX_FACTORS = 30;
+
+	/**
+	 * Largest number in the table.
+	 */
+	private final int limit;
+
+	/**
+	 * Smallest prime factor of each odd number 2i + 1, or zero if the number is
+	 * one or prime.
+	 */
+	private final char[] factors;
+
+	/**
+	 * Constructs a new table of the smallest prime factors.
+	 * 
+	 * @param limit
+	 *            Largest number in the table.
+	 * @throws IllegalArgumentException
+	 *             If the limit is not positive.
+	 */
+	public SmallestPrimeFactorTable(int limit) {
+		if (limit < 1) {
+			throw new IllegalArgumentException("Limit must be positive.");
+		}
+		this.limit = limit;
+		this.factors = new char[(limit >>> 1) + 1];
+
+		int[] primes = PrimeSieve.oddPrimesUpTo((int) Math.sqrt(limit) + 1);
+		for (int i = 3; (long) i * 3 <= limit; i += 2) {
+			int smallest = factors[i >>> 1];
+			if (smallest == 0) {
+				smallest = i;
+			}
+			for (int k = 0; k < primes.length; k++) {
+				int p = primes[k];
+				long product = (long) p * i;
+				if (p > smallest || product > limit) {
+					break;
+				}
+				factors[(int) (product >>> 1)] = (char) p;
+			}
+		}
+	}
+
+	/**
+	 * Gets the largest number in the table.
+	 * 
+	 * @return Largest number in the table.
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Finds the smallest prime factor of the number.
+	 * 
+	 * @param n
+	 *            Number greater than one.
+	 * @return Smallest prime factor of the number.
+	 * @throws IllegalArgumentException
+	 *             If the number is not between two and the limit of the table.
+	 */
+	public int smallestFactor(int n) {
+		if (n < 2 || n > limit) {
+			throw new IllegalArgumentException("Number must be between 2 and " + limit + ".");
+		}
+		if ((n & 1) == 0) {
+			return 2;
+		}
+		int factor = factors[n >>> 1];
+		return factor == 0 ? n : factor;
+	}
+
+	/**
+	 * Stores the prime factors of the number to the array in ascending order,
+	 * each one repeated as many times as it divides the number. The number one
+	 * has no prime factors. Nothing is allocated.
+	 * 
+	 * @param n
+	 *            Number to be factorized.
+	 * @param out
+	 *            Array where the factors are stored, which has to have at least
+	 *            {@link #MAX_FACTORS} elements.
+	 * @return Number of stored factors.
+	 * @throws IllegalArgumentException
+	 *             If the number is not between one and the limit of the table.
+	 */
+	public int factor(int n, int[] out) {
+		if (n < 1 || n > limit) {
+			throw new IllegalArgumentException("Number must be between 1 and " + limit + ".");
+		}
+		return factor(n, out, 0);
+	}
+
+	/**
+	 * Factorizes all the numbers in parallel. The factors of all the numbers
+	 * are counted first, so they are stored in one array which is allocated
+	 * only once.
+	 * 
+	 * @param numbers
+	 *            Numbers to be factorized.
+	 * @return Prime factors of the numbers.
+	 * @throws IllegalArgumentException
+	 *             If any number is not between one and the limit of the table.
+	 */
+	public Factorization factorAll(int[] numbers) {
+		for (int n : numbers) {
+			if (n < 1 || n > limit) {
+				throw new IllegalArgumentException("Number must be between 1 and " + limit + ".");
+			}
+		}
+
+		int[] offsets = new int[numbers.length + 1];
+		IntStream.range(0, numbers.length).parallel().forEach(i -> offsets[i + 1] = count(numbers[i]));
+		Arrays.parallelPrefix(offsets, Integer::sum);
+
+		int[] all = new int[offsets[numbers.length]];
+		IntStream.range(0, numbers.length).parallel().forEach(i -> factor(numbers[i], all, offsets[i]));
+		return new Factorization(offsets, all);
+	}
+
+	/**
+	 * Counts the prime factors of the number, with their multiplicities.
+	 * 
+	 * @param n
+	 *            Number between one and the limit of the table.
+	 * @return Number of prime factors.
+	 */
+	private int count(int n) {
+		int count = Integer.numberOfTrailingZeros(n);
+		n >>>= count;
+		while (n > 1) {
+			int factor = factors[n >>> 1];
+			count++;
+			if (factor == 0) {
+				break;
+			}
+			n /= factor;
+		}
+		return count;
+	}
+
+	/**
+	 * Stores the prime factors of the number to the array, starting at the
+	 * given offset.
+	 * 
+	 * @param n
+	 *            Number between one and the limit of the table.
+	 * @param out
+	 *            Array where the factors are stored.
+	 * @param offset
+	 *            Index of the first stored factor.
+	 * @return Number of stored factors.
+	 */
+	private int factor(int n, int[] out, int offset) {
+		int index = offset;
+		int twos = Integer.numberOfTrailingZeros(n);
+		for (int i = 0; i < twos; i++) {
+			out[index++] = 2;
+		}
+		n >>>= twos;
+		while (n > 1) {
+			int factor = factors[n >>> 1];
+			if (factor == 0) {
+				out[index++] = n;
+				break;
+			}
+			out[index++] = factor;
+			n /= factor;
+		}
+		return index - offset;
+	}
+
+	/**
+	 * Class that represents the prime factors of a batch of numbers. The
+	 * factors of all the numbers are stored one after another in a single
+	 * array.
+	 * 
+	 * @author Dinz
+	 *
+	 */
+	public static class Factorization {
+
+		/**
+		 * Index of the first factor of each number, followed by the total
+		 * number of factors.
+		 */
+		private final int[] offsets;
+
+		/**
+		 * Factors of all the numbers.
+		 */
+		private final int[] factors;
+
+		/**
+		 * Constructs a new factorization.
+		 * 
+		 * @param offsets
+		 *            Index of the first factor of each number, followed by the
+		 *            total number of factors.
+		 * @param factors
+		 *            Factors of all the numbers.
+		 */
+		private Factorization(int[] offsets, int[] factors) {
+			this.offsets = offsets;
+			this.factors = factors;
+		}
+
+		/**
+		 * Gets the number of factorized numbers.
+		 * 
+		 * @return Number of factorized numbers.
+		 */
+		public int size() {
+			return offsets.length - 1;
+		}
+
+		/**
+		 * Gets the number of prime factors of the number.
+		 * 
+		 * @param index
+		 *            Index of the number in the batch.
+		 * @return Number of prime factors.
+		 */
+		public int count(int index) {
+			return offsets[index + 1] - offsets[index];
+		}
+
+		/**
+		 * Gets the prime factor of the number.
+		 * 
+		 * @param index
+		 *            Index of the number in the batch.
+		 * @param k
+		 *            Index of the factor, between zero and {@link #count(int)} -
+		 *            1.
+		 * @return Prime factor.
+		 * @throws IndexOutOfBoundsException
+		 *             If the index of the factor is out of range.
+		 */
+		public int get(int index, int k) {
+			return factors[offsets[index] + Objects.checkIndex(k, count(index))];
+		}
+	}
+}
@@ -0,0 +1,277 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.swing.event.ListDataListener;
+
+/**
+ * Class that represents a virtual model for prime numbers lists. Elements are
+ * ordered the same way as in {@link PrimListModel}, but none of them is stored
+ * in advance. When an element is requested, the segment where it lies is
+ * found by counting the primes with {@link PrimeCounting}, and the window of
+ * consecutive elements around it is sieved on demand and kept in a bounded
+ * cache of recently used windows, so the memory stays the same no matter which
+ * part of the list is shown.
+ * 
+ * @author Dinz
+ *
+ */
+public class VirtualPrimListModel implements IntListModel {
+
+	/**
+	 * Number of elements in one window.
+	 */
+	private static final int WINDOW_SIZE = 4096;
+
+	/**
+	 * Maximum number of cached windows.
+	 */
+	private static final int CACHED_WINDOWS = 64;
+
+	/**
+	 * Number of numbers covered by one sieve segment.
+	 */
+	private static final long SEGMENT_LENGTH = 2L * PrimeSieve.SEGMENT_BITS;
+
+	/**
+	 * Number of sieve segments needed to cover all the integers.
+	 */
+	private static final int SEGMENT_COUNT = (int) ((PrimeSieve.MAX_INT_PRIME + SEGMENT_LENGTH - 1) / SEGMENT_LENGTH);
+
+	/**
+	 * Maximum size of the model.
+	 */
+	public static final int MAX_SIZE = PrimeSieve.INT_PRIME_COUNT + 1;
+
+	/**
+	 * Logical size of the model.
+	 */
+	private final int size;
+
+	/**
+	 * Number of primes which precede the odd primes of each segment, including
+	 * the prime two, or -1 for the segments which were not yet counted.
+	 */
+	private final int[] primesBefore = new int[SEGMENT_COUNT];
+
+	/**
+	 * Recently used windows of elements, ordered by access.
+	 */
+	private final Map<Integer, int[]> windows = new LinkedHashMap<Integer, int[]>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 3411407744186325018L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+			return size() > CACHED_WINDOWS;
+		}
+	};
+
+	/**
+	 * Bits of the segment which is currently being sieved.
+	 */
+	private final long[] composite = new long[PrimeSieve.SEGMENT_WORDS];
+
+	/**
+	 * Metrics where the model records the cache hits and misses, or null if
+	 * there are none.
+	 */
+	private PrimMetrics metrics;
+
+	/**
+	 * List of listeners of this model.
+	 */
+	private List<ListDataListener> listeners = new ArrayList<>();
+
+	/**
+	 * Constructs a new virtual prime numbers list model with the maximum size.
+	 */
+	public VirtualPrimListModel() {
+		this(MAX_SIZE);
+	}
+
+	/**
+	 * Constructs a new virtual prime numbers list model with the given logical
+	 * size.
+	 * 
+	 * @param size
+	 *            Logical size of the model.
+	 * @throws IllegalArgumentException
+	 *             If the size is negative or larger than {@link #MAX_SIZE}.
+	 */
+	public VirtualPrimListModel(int size) {
+		if (size < 0 || size > MAX_SIZE) {
+			throw new IllegalArgumentException("Size must be between 0 and " + MAX_SIZE + ".");
+		}
+		this.size = size;
+		Arrays.fill(primesBefore, -1);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @return Logical size of the model.
+	 */
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @param index
+	 *            Index of the element.
+	 * @return Prime number at the given index.
+	 */
+	@Override
+	public Integer getElementAt(int index) {
+		return getInt(index);
+	}
+
+	/**
+	 * Gets the element at the given index without boxing it.
+	 * 
+	 * @param index
+	 *            Index of the element.
+	 * @return Prime number at the given index.
+	 * @throws IndexOutOfBoundsException
+	 *             If the index is out of range.
+	 */
+	@Override
+	public int getInt(int index) {
+		Objects.checkIndex(index, size);
+		int window = index / WINDOW_SIZE;
+		int[] elements = windows.get(window);
+		if (elements == null) {
+			elements = fillWindow(window);
+			windows.put(window, elements);
+			if (metrics != null) {
+				metrics.recordCacheMiss();
+			}
+		} else if (metrics != null) {
+			metrics.recordCacheHit();
+		}
+		return elements[index % WINDOW_SIZE];
+	}
+
+	/**
+	 * Sets the metrics where the model records the cache hits and misses.
+	 * 
+	 * @param metrics
+	 *            Metrics of the model, or null to stop recording.
+	 */
+	public void setMetrics(PrimMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @param l
+	 *            Listener.
+	 */
+	@Override
+	public void addListDataListener(ListDataListener l) {
+		listeners.add(l);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @param l
+	 *            Listener.
+	 */
+	@Override
+	public void removeListDataListener(ListDataListener l) {
+		listeners.remove(l);
+	}
+
+	/**
+	 * Computes the elements of the given window.
+	 * 
+	 * @param window
+	 *            Index of the window.
+	 * @return Elements of the window.
+	 */
+	private int[] fillWindow(int window) {
+		int first = window * WINDOW_SIZE;
+		int[] elements = new int[Math.min(WINDOW_SIZE, size - first)];
+		int index = 0;
+
+		if (first == 0) {
+			elements[index++] = 1;
+			if (index < elements.length) {
+				elements[index++] = 2;
+			}
+			first = 2;
+		}
+		if (index == elements.length) {
+			return elements;
+		}
+
+		int segment = findSegment(first);
+		int skip = first - primesBefore(segment) - 1;
+		while (index < elements.length) {
+			long low = 1 + segment * SEGMENT_LENGTH;
+			PrimeSieve.sieveSegment(composite, low);
+			index += PrimeSieve.collect(composite, low, segmentBits(low), skip, elements, index);
+			skip = 0;
+			segment++;
+		}
+		return elements;
+	}
+
+	/**
+	 * Finds the segment which contains the n-th prime number. The search starts
+	 * at the segment of the estimated n-th prime and moves until the counts of
+	 * the preceding primes surround the ordinal number.
+	 * 
+	 * @param n
+	 *            Ordinal number of the prime, at least two.
+	 * @return Index of the segment.
+	 */
+	private int findSegment(int n) {
+		int segment = (int) Math.min(SEGMENT_COUNT - 1, PrimeCounting.estimate(n) / SEGMENT_LENGTH);
+		while (primesBefore(segment) >= n) {
+			segment--;
+		}
+		while (segment + 1 < SEGMENT_COUNT && primesBefore(segment + 1) < n) {
+			segment++;
+		}
+		return segment;
+	}
+
+	/**
+	 * Gets the number of primes which precede the odd primes of the segment,
+	 * including the prime two. The primes are counted the first time the
+	 * segment is needed.
+	 * 
+	 * @param segment
+	 *            Index of the segment.
+	 * @return Number of preceding primes.
+	 */
+	private int primesBefore(int segment) {
+		if (primesBefore[segment] < 0) {
+			long low = 1 + segment * SEGMENT_LENGTH;
+			primesBefore[segment] = (int) Math.max(1, PrimeCounting.primeCount(low - 1));
+		}
+		return primesBefore[segment];
+	}
+
+	/**
+	 * Computes the number of bits of the segment which represent integers.
+	 * 
+	 * @param low
+	 *            Odd number represented by the first bit of the segment.
+	 * @return Number of bits.
+	 */
+	private static long segmentBits(long low) {
+		return Math.min(PrimeSieve.SEGMENT_BITS, (PrimeSieve.MAX_INT_PRIME - low) / 2 + 1);
+	}
+}
@@ -0,0 +1,140 @@
+package hr.fer.zemris.java.gui.prim;
+
+/**
+ * Class that represents the wheel of the primes 2, 3, 5 and 7, whose
+ * circumference is 210. Only 48 of every 210 numbers are coprime to the wheel
+ * primes, so the wheel is used to skip about 77% of the candidates. It is used
+ * in two ways: as a bit pattern which marks the odd multiples of 3, 5 and 7 in
+ * a sieve segment at once, and as a sequence of gaps between the candidates
+ * which are tested one by one.
+ * 
+ * @author Dinz
+ *
+ */
+class Wheel {
+
+	/**
+	 * Circumference of the wheel.
+	 */
+	static final int CIRCUMFERENCE = 210;
+
+	/**
+	 * Odd primes of the wheel.
+	 */
+	static final int[] PRIMES = { 3, 5, 7 };
+
+	/**
+	 * Period of the odd-only bit pattern, which is the product of the odd wheel
+	 * primes.
+	 */
+	private static final int PERIOD = 105;
+
+	/**
+	 * Bits of the odd numbers 1, 3, 5, ... Set bit marks a multiple of 3, 5 or 7.
+	 * The pattern repeats with the {@link #PERIOD} and it is long enough for any
+	 * 64 bits starting in the first period to be read.
+	 */
+	private static final long[] PATTERN = new long[3];
+
+	/**
+	 * Numbers in the first turn of the wheel which are coprime to 210.
+	 */
+	static final int[] RESIDUES = new int[48];
+
+	/**
+	 * Gaps between the consecutive residues, the last one wrapping to the next
+	 * turn.
+	 */
+	static final int[] GAPS = new int[48];
+
+	/**
+	 * Index of the smallest residue which is greater than or equal to each
+	 * number of the turn, or 48 if there is none.
+	 */
+	private static final byte[] NEXT_RESIDUE = new byte[CIRCUMFERENCE];
+
+	static {
+		for (int bit = 0; bit < PATTERN.length * 64; bit++) {
+			int odd = 2 * (bit % PERIOD) + 1;
+			if (odd % 3 == 0 || odd % 5 == 0 || odd % 7 == 0) {
+				PATTERN[bit >>> 6] |= 1L << bit;
+			}
+		}
+
+		int count = 0;
+		for (int n = 1; n < CIRCUMFERENCE; n++) {
+			if (n % 2 != 0 && n % 3 != 0 && n % 5 != 0 && n % 7 != 0) {
+				RESIDUES[count++] = n;
+			}
+		}
+		for (int i = 0; i < RESIDUES.length; i++) {
+			int next = i + 1 < RESIDUES.length ? RESIDUES[i + 1] : CIRCUMFERENCE + RESIDUES[0];
+			GAPS[i] = next - RESIDUES[i];
+		}
+		int index = 0;
+		for (int n = 0; n < CIRCUMFERENCE; n++) {
+			while (index < RESIDUES.length && RESIDUES[index] < n) {
+				index++;
+			}
+			NEXT_RESIDUE[n] = (byte) index;
+		}
+	}
+
+	/**
+	 * Disables the construction of the class.
+	 */
+	private Wheel() {
+	}
+
+	/**
+	 * Overwrites the bits of an odd-only sieve segment with the wheel pattern,
+	 * so every odd multiple of 3, 5 and 7 is marked, except the wheel primes
+	 * themselves.
+	 * 
+	 * @param composite
+	 *            Bits of the segment.
+	 * @param words
+	 *            Number of words to be filled.
+	 * @param low
+	 *            Odd number represented by the first bit of the segment.
+	 */
+	static void presieve(long[] composite, int words, long low) {
+		int phase = (int) (((low - 1) >>> 1) % PERIOD);
+		for (int word = 0; word < words; word++) {
+			int index = phase >>> 6;
+			int shift = phase & 63;
+			long bits = PATTERN[index] >>> shift;
+			if (shift != 0) {
+				bits |= PATTERN[index + 1] << (64 - shift);
+			}
+			composite[word] = bits;
+
+			phase += 64;
+			if (phase >= PERIOD) {
+				phase -= PERIOD;
+			}
+		}
+
+		if (low <= PRIMES[PRIMES.length - 1]) {
+			for (int p : PRIMES) {
+				if (p >= low) {
+					long bit = (p - low) >>> 1;
+					composite[(int) (bit >>> 6)] &= ~(1L << bit);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the index of the residue of the smallest number coprime to the wheel
+	 * which is greater than or equal to the given number.
+	 * 
+	 * @param n
+	 *            Non-negative number.
+	 * @return Index of the residue, between 0 and 48. The index 48 means the
+	 *         first residue of the next turn.
+	 */
+	static int nextResidue(long n) {
+		return NEXT_RESIDUE[(int) (n % CIRCUMFERENCE)];
+	}
+}
@@ -1,6 +1,8 @@
 package hr.fer.zemris.java.gui.calc;
 
 
+import java.util.EmptyStackException;
+
 import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
@@ -194,4 +196,140 @@ public class CalcModelTest {
 		assertEquals("34", model.toString()); 
 	}
 
+	@Test
+	public void setValueKeepsFormat() {
+		model.setValue(0.5);
+		assertEquals("0.5", model.toString());
+		model.insertDigit(3);
+		assertEquals(0.53, model.getValue(), 1E-10);
+
+		model.setValue(1E-5);
+		assertEquals("1E-5", model.toString());
+		assertEquals(1E-5, model.getValue(), 0);
+		model.insertDigit(7);
+		assertEquals(1.7E-5, model.getValue(), 1E-15);
+
+		model.setValue(-12345678.5);
+		assertEquals(-12345678.5, model.getValue(), 0);
+		model.swapSign();
+		assertEquals(12345678.5, model.getValue(), 0);
+
+		model.setValue(-42);
+		assertEquals("-42", model.toString());
+	}
+
+	@Test
+	public void longEntriesAreExact() {
+		for (int i = 0; i < 25; i++) {
+			model.insertDigit(i % 10);
+		}
+		assertEquals(Double.parseDouble("123456789012345678901234"), model.getValue(), 0);
+
+		model.clear();
+		model.insertDecimalPoint();
+		for (int i = 0; i < 30; i++) {
+			model.insertDigit(3);
+		}
+		assertEquals(Double.parseDouble("0.333333333333333333333333333333"), model.getValue(), 0);
+	}
+
+	@Test
+	public void safeWithTooBigNegativeNumbers() {
+		model.insertDigit(9);
+		model.swapSign();
+		for (int i = 1; i <= 400; i++) {
+			model.insertDigit(9);
+		}
+		assertTrue(Double.isFinite(model.getValue()));
+		assertTrue(model.getValue() < 0);
+	}
+
+	@Test
+	public void setValueWithLargeNumbers() {
+		model.setValue(1E10);
+		assertEquals("10000000000", model.toString());
+		assertEquals(1E10, model.getValue(), 0);
+
+		model.setValue(-3E20);
+		assertEquals("-3E20", model.toString());
+		assertEquals(-3E20, model.getValue(), 0);
+	}
+
+	@Test
+	public void typedEntryIsShownAsTyped() {
+		model.insertDigit(4);
+		model.insertDecimalPoint();
+		assertEquals("4.0", model.toString());
+		model.insertDigit(0);
+		model.insertDigit(0);
+		assertEquals("4.00", model.toString());
+		model.swapSign();
+		assertEquals("-4.00", model.toString());
+	}
+
+	@Test
+	public void longTypedEntryIsNotReformatted() {
+		for (int i = 1; i <= 17; i++) {
+			model.insertDigit(i % 10);
+		}
+		assertEquals("12345678901234567", model.toString());
+
+		model.clear();
+		model.insertDigit(0);
+		model.insertDecimalPoint();
+		for (int i = 0; i < 15; i++) {
+			model.insertDigit(0);
+		}
+		assertEquals("0.000000000000000", model.toString());
+		model.insertDigit(1);
+		assertEquals("0.0000000000000001", model.toString());
+	}
+
+	@Test
+	public void stackWorksInReversePolishNotation() {
+		DoubleStack stack = model.getStack();
+		model.push(2);
+		model.push(3);
+		model.push(4);
+		stack.rot();
+		assertEquals(2, stack.peek(), 0);
+		stack.swap();
+		stack.apply(Operators.SUBTRACT);
+		assertEquals(2, stack.depth());
+		assertEquals(-2, stack.peek(), 0);
+		stack.dup();
+		stack.productAll();
+		assertEquals(12, model.pop(), 0);
+		assertTrue(stack.isEmpty());
+	}
+
+	@Test
+	public void stackIsUnchangedWhenItHasTooFewValues() {
+		DoubleStack stack = model.getStack();
+		model.push(1);
+		try {
+			stack.swap();
+			fail();
+		} catch (EmptyStackException ex) {
+			assertEquals(1, stack.depth());
+		}
+		stack.drop();
+		try {
+			model.pop();
+			fail();
+		} catch (EmptyStackException ex) {
+			assertEquals(0, stack.depth());
+		}
+	}
+
+	@Test
+	public void stackGrows() {
+		DoubleStack stack = model.getStack();
+		for (int i = 1; i <= 1000; i++) {
+			model.push(i);
+		}
+		stack.sumAll();
+		assertEquals(500500, model.pop(), 0);
+	}
+
 }
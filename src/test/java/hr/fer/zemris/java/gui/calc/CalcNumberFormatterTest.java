@@ -0,0 +1,43 @@
+package hr.fer.zemris.java.gui.calc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CalcNumberFormatterTest {
+
+	@Test
+	public void formatsSamples() {
+		assertEquals("0", CalcNumberFormatter.format(0.0));
+		assertEquals("0", CalcNumberFormatter.format(-0.0));
+		assertEquals("-42", CalcNumberFormatter.format(-42));
+		assertEquals("10000000000", CalcNumberFormatter.format(1E10));
+		assertEquals("0.1", CalcNumberFormatter.format(0.1));
+		assertEquals("0.3", CalcNumberFormatter.format(0.3));
+		assertEquals("0.30000000000000004", CalcNumberFormatter.format(0.1 + 0.2));
+		assertEquals("0.001", CalcNumberFormatter.format(0.001));
+		assertEquals("1E-5", CalcNumberFormatter.format(1E-5));
+		assertEquals("1.5E20", CalcNumberFormatter.format(1.5E20));
+		assertEquals("2E-323", CalcNumberFormatter.format(2E-323));
+		assertEquals("1.7976931348623157E308", CalcNumberFormatter.format(Double.MAX_VALUE));
+	}
+
+	@Test
+	public void roundTripsRandomValues() {
+		Random random = new Random(42);
+		for (int i = 0; i < 100_000; i++) {
+			double value = Double.longBitsToDouble(random.nextLong());
+			if (!Double.isFinite(value)) {
+				continue;
+			}
+			String text = CalcNumberFormatter.format(value);
+			assertEquals(value == 0 ? 0.0 : value, Double.parseDouble(text), 0);
+			assertTrue(new BigDecimal(text).stripTrailingZeros().precision() <= new BigDecimal(Double.toString(value)).precision());
+		}
+	}
+
+}
@@ -0,0 +1,72 @@
+package hr.fer.zemris.java.gui.calc;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.gui.calc.CalcScriptRunner.Key;
+import hr.fer.zemris.java.gui.calc.CalcScriptRunner.Result;
+
+public class CalcScriptRunnerTest {
+
+	private static Result run(String script) throws IOException {
+		Key[] keys = CalcScriptRunner.parse(
+				Channels.newChannel(new ByteArrayInputStream(script.getBytes(StandardCharsets.US_ASCII))));
+		return new CalcScriptRunner().replay(keys);
+	}
+
+	@Test
+	public void replaysArithmetic() throws IOException {
+		Result result = run("1 2 + 3 0 = # comment with = and +\n* 2 =");
+		assertEquals(9, result.getKeys());
+		assertEquals("84", result.getDisplay());
+		assertEquals(0, result.getErrors());
+	}
+
+	@Test
+	public void invertsSwitchableOperations() throws IOException {
+		assertEquals(Math.asin(0.5), run(". 5 inv sin").getValue(), 1E-15);
+		assertEquals(8, run("2 x^n 3 =").getValue(), 0);
+		assertEquals(0.125, run("2 inv x^n 3 =").getValue(), 0);
+	}
+
+	@Test
+	public void stackKeys() throws IOException {
+		Result result = run("4 2 push 7 pop");
+		assertEquals("42", result.getDisplay());
+	}
+
+	@Test
+	public void errorsAreRecorded() throws IOException {
+		Result result = run("pop 0 1/x 5 +/-\tln");
+		assertEquals(3, result.getErrors());
+		assertEquals("Key 0: Stack is empty.", result.getMessages().get(0));
+		assertEquals("Key 2: Result is NaN.", result.getMessages().get(1));
+		assertEquals(-5, result.getValue(), 0);
+	}
+
+	@Test
+	public void reversePolishKeys() throws IOException {
+		Result result = run("2 push 3 push 4 push rot drop swap dup prod sum pop drop");
+		assertEquals("36", result.getDisplay());
+		assertEquals(1, result.getErrors());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unknownKey() throws IOException {
+		run("1 + sqrt");
+	}
+
+	@Test
+	public void keysByLabel() {
+		for (Key key : Key.values()) {
+			assertEquals(key, Key.forLabel(key.getLabel()));
+		}
+	}
+
+}
@@ -0,0 +1,73 @@
+package hr.fer.zemris.java.gui.calc.expr;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class CompiledExpressionTest {
+
+	@Test
+	public void precedenceAndAssociativity() {
+		assertEquals(7, CompiledExpression.compile("1 + 2 * 3").evaluate(), 0);
+		assertEquals(9, CompiledExpression.compile("(1 + 2) * 3").evaluate(), 0);
+		assertEquals(2, CompiledExpression.compile("8 - 4 - 2").evaluate(), 0);
+		assertEquals(1, CompiledExpression.compile("8 / 4 / 2").evaluate(), 0);
+		assertEquals(512, CompiledExpression.compile("2 ^ 3 ^ 2").evaluate(), 0);
+		assertEquals(-4, CompiledExpression.compile("-2 ^ 2").evaluate(), 0);
+		assertEquals(0.25, CompiledExpression.compile("2 ^ -2").evaluate(), 0);
+		assertEquals(1.5E-3, CompiledExpression.compile("1.5e-3").evaluate(), 0);
+	}
+
+	@Test
+	public void variablesAndFunctions() {
+		CompiledExpression expression = CompiledExpression.compile("3*sin(x)+log(2)/7", "x");
+		double[] values = new double[1];
+		for (int i = 0; i < 100; i++) {
+			values[0] = i * 0.1;
+			assertEquals(3 * Math.sin(values[0]) + Math.log10(2) / 7, expression.evaluate(values), 1E-15);
+		}
+
+		CompiledExpression twoVariables = CompiledExpression.compile("x ^ 2 + ctg(y) - pi * e", "x", "y");
+		assertEquals(4 + 1 / Math.tan(1) - Math.PI * Math.E, twoVariables.evaluate(2, 1), 1E-12);
+	}
+
+	@Test
+	public void constantsAreFolded() {
+		assertEquals(1, CompiledExpression.compile("log(2) / 7 + sqrt(16) * (1 - 3)").getInstructionCount());
+		assertEquals(6, CompiledExpression.compile("3 * sin(x) + log(2) / 7", "x").getInstructionCount());
+	}
+
+	@Test
+	public void copyHasItsOwnStack() {
+		CompiledExpression expression = CompiledExpression.compile("(x + 1) * (x - 1)", "x");
+		CompiledExpression copy = expression.copy();
+		assertEquals(expression.evaluate(5), copy.evaluate(5), 0);
+		assertEquals(24, copy.evaluate(5), 0);
+	}
+
+	@Test(expected = ExpressionException.class)
+	public void unknownName() {
+		CompiledExpression.compile("2 * y", "x");
+	}
+
+	@Test(expected = ExpressionException.class)
+	public void missingParenthesis() {
+		CompiledExpression.compile("sin(1 + 2");
+	}
+
+	@Test(expected = ExpressionException.class)
+	public void trailingInput() {
+		CompiledExpression.compile("1 2");
+	}
+
+	@Test(expected = ExpressionException.class)
+	public void emptyExpression() {
+		CompiledExpression.compile("  ");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void missingValues() {
+		CompiledExpression.compile("x + y", "x", "y").evaluate(1);
+	}
+
+}
@@ -0,0 +1,93 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LongPrimesTest {
+
+	@Test
+	public void smallNumbersTest() {
+		PrimeSieve sieve = new PrimeSieve();
+		int prime = sieve.next();
+		for (int n = 0; n < 1_000_000; n++) {
+			if (n == prime) {
+				Assert.assertTrue(LongPrimes.isPrime(n));
+				prime = sieve.next();
+			} else {
+				Assert.assertFalse(LongPrimes.isPrime(n));
+			}
+		}
+	}
+
+	@Test
+	public void largeNumbersTest() {
+		Assert.assertTrue(LongPrimes.isPrime((1L << 61) - 1));
+		Assert.assertTrue(LongPrimes.isPrime(Long.MAX_VALUE - 24));
+		Assert.assertFalse(LongPrimes.isPrime(Long.MAX_VALUE));
+		Assert.assertFalse(LongPrimes.isPrime(3_215_031_751L));
+		Assert.assertFalse(LongPrimes.isPrime(3_825_123_056_546_413_051L));
+		Assert.assertFalse(LongPrimes.isPrime(4_294_967_297L));
+	}
+
+	@Test
+	public void randomNumbersTest() {
+		Random random = new Random(42);
+		for (int i = 0; i < 100_000; i++) {
+			long n = random.nextLong() >>> (1 + random.nextInt(40));
+			Assert.assertEquals(Long.toString(n), BigInteger.valueOf(n).isProbablePrime(50), LongPrimes.isPrime(n));
+		}
+	}
+
+	@Test
+	public void nextPrimeTest() {
+		Assert.assertEquals(2, LongPrimes.nextPrime(0));
+		Assert.assertEquals(3, LongPrimes.nextPrime(2));
+		Assert.assertEquals(1_000_000_000_000_000_003L, LongPrimes.nextPrime(1_000_000_000_000_000_000L));
+		Assert.assertEquals(Long.MAX_VALUE - 24, LongPrimes.nextPrime(Long.MAX_VALUE - 30));
+	}
+
+	@Test
+	public void nextPrimeSequenceTest() {
+		PrimeSieve sieve = new PrimeSieve();
+		long prime = LongPrimes.nextPrime(-1);
+		for (int i = 0; i < 200_000; i++) {
+			Assert.assertEquals(sieve.next(), prime);
+			prime = LongPrimes.nextPrime(prime);
+		}
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void nextPrimeOverflowTest() {
+		LongPrimes.nextPrime(Long.MAX_VALUE - 24);
+	}
+
+	@Test
+	public void modelTest() {
+		LongPrimListModel longModel = new LongPrimListModel();
+		longModel.next(200_000);
+		PrimListModel intModel = new PrimListModel();
+		intModel.next(200_000);
+
+		Assert.assertEquals(intModel.getSize(), longModel.getSize());
+		for (int i = 0; i < intModel.getSize(); i++) {
+			Assert.assertEquals(intModel.getInt(i), longModel.getLong(i));
+		}
+	}
+
+	@Test
+	public void largeModelTest() {
+		long start = 1_000_000_000_000_000_000L;
+		LongPrimListModel model = new LongPrimListModel(start);
+		model.next(1000);
+
+		BigInteger expected = BigInteger.valueOf(start);
+		Assert.assertEquals(start, model.getLong(0));
+		for (int i = 1; i < model.getSize(); i++) {
+			expected = expected.nextProbablePrime();
+			Assert.assertEquals(expected.longValueExact(), model.getLong(i));
+		}
+	}
+}
@@ -1,5 +1,19 @@
 package hr.fer.zemris.java.gui.prim;
 
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
 import org.junit.Test;
 import org.junit.Assert;
 
@@ -59,6 +73,316 @@ public class PrimListModelTest {
 		Assert.assertEquals(expected, actual, DELTA);
 		Assert.assertEquals(expected2, actual2, DELTA);
 	}
+	@Test
+	public void sieveSequenceTest() {
+		PrimListModel model = new PrimListModel();
+
+		int candidate = 1;
+		for (int i = 1; i <= 100_000; i++) {
+			model.next();
+			do {
+				candidate++;
+			} while (!isPrime(candidate));
+			Assert.assertEquals(candidate, (int) model.getElementAt(i));
+		}
+	}
+
+	@Test
+	public void getIntTest() {
+		PrimListModel model = new PrimListModel();
+
+		for (int i = 0; i < 1000; i++) {
+			model.next();
+		}
+
+		Assert.assertEquals(1, model.getInt(0));
+		Assert.assertEquals(7919, model.getInt(1000));
+		Assert.assertEquals(model.getElementAt(500).intValue(), model.getInt(500));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void getIntOutOfRangeTest() {
+		new PrimListModel().getInt(1);
+	}
+
+	@Test
+	public void bulkNextTest() {
+		PrimListModel model = new PrimListModel();
+		List<ListDataEvent> events = recordEvents(model);
+
+		model.next(1000);
+
+		Assert.assertEquals(1001, model.getSize());
+		Assert.assertEquals(7919, model.getInt(1000));
+		Assert.assertEquals(1, events.size());
+		Assert.assertEquals(ListDataEvent.INTERVAL_ADDED, events.get(0).getType());
+		Assert.assertEquals(1, events.get(0).getIndex0());
+		Assert.assertEquals(1000, events.get(0).getIndex1());
+	}
+
+	@Test
+	public void advanceToTest() {
+		PrimListModel model = new PrimListModel();
+		model.next();
+		List<ListDataEvent> events = recordEvents(model);
+
+		model.advanceTo(100);
+		model.advanceTo(100);
+
+		Assert.assertEquals(26, model.getSize());
+		Assert.assertEquals(97, model.getInt(25));
+		Assert.assertEquals(1, events.size());
+		Assert.assertEquals(2, events.get(0).getIndex0());
+		Assert.assertEquals(25, events.get(0).getIndex1());
+	}
+
+	@Test
+	public void parallelAdvanceToTest() {
+		PrimListModel parallel = new PrimListModel();
+		parallel.next(10);
+		List<ListDataEvent> events = recordEvents(parallel);
+		parallel.advanceTo(20_000_000);
+		Assert.assertEquals(1, events.size());
+		Assert.assertEquals(11, events.get(0).getIndex0());
+		parallel.next();
+
+		PrimListModel sequential = new PrimListModel();
+		PrimeSieve sieve = new PrimeSieve();
+		while (sieve.peek() <= 20_000_000) {
+			sieve.next();
+			sequential.next();
+		}
+		sequential.next();
+
+		Assert.assertEquals(sequential.getSize(), parallel.getSize());
+		for (int i = 0; i < sequential.getSize(); i++) {
+			Assert.assertEquals(sequential.getInt(i), parallel.getInt(i));
+		}
+	}
+
+	@Test
+	public void mappedStoreTest() throws Exception {
+		Path file = Files.createTempFile("primes", ".bin");
+		Files.delete(file);
+		try {
+			try (PrimListModel model = new PrimListModel(new MappedPrimeStore(file))) {
+				model.next(100_000);
+				Assert.assertEquals(1_299_709, model.getInt(100_000));
+			}
+
+			try (PrimListModel model = new PrimListModel(new MappedPrimeStore(file))) {
+				Assert.assertEquals(100_001, model.getSize());
+				Assert.assertEquals(1, model.getInt(0));
+				Assert.assertEquals(1_299_709, model.getInt(100_000));
+				model.next();
+				Assert.assertEquals(1_299_721, model.getInt(100_001));
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void gapCompressedStoreTest() {
+		PrimListModel compressed = new PrimListModel(new GapCompressedPrimeStore());
+		compressed.next(100_000);
+		compressed.advanceTo(30_000_000);
+		PrimListModel plain = new PrimListModel();
+		plain.next(100_000);
+		plain.advanceTo(30_000_000);
+
+		Assert.assertEquals(plain.getSize(), compressed.getSize());
+		for (int i = 0; i < plain.getSize(); i++) {
+			Assert.assertEquals(plain.getInt(i), compressed.getInt(i));
+		}
+	}
+
+	@Test
+	public void backgroundTest() throws Exception {
+		PrimListModel model = new PrimListModel();
+		model.next();
+		model.startBackground(100);
+
+		SwingUtilities.invokeAndWait(() -> model.next(500));
+		long deadline = System.currentTimeMillis() + 10_000;
+		int[] size = new int[1];
+		while (size[0] < 502 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+			SwingUtilities.invokeAndWait(() -> size[0] = model.getSize());
+		}
+		SwingUtilities.invokeAndWait(model::stopBackground);
+
+		Assert.assertEquals(502, model.getSize());
+		Assert.assertEquals(3, model.getInt(2));
+		Assert.assertEquals(3581, model.getInt(501));
+
+		model.next();
+		Assert.assertEquals(3583, model.getInt(502));
+	}
+
+	@Test
+	public void sieveStartTest() {
+		PrimeSieve sieve = new PrimeSieve(1_000_000);
+
+		Assert.assertEquals(1_000_003, sieve.next());
+		Assert.assertEquals(1_000_033, sieve.next());
+		Assert.assertEquals(2_147_483_647, new PrimeSieve(2_147_483_630L).next());
+	}
+
+	@Test
+	public void streamTest() {
+		PrimListModel model = new PrimListModel();
+		model.next(10_000);
+
+		Assert.assertEquals(10_000, model.stream().count());
+		Assert.assertEquals(2, model.stream().findFirst().getAsInt());
+		Assert.assertEquals(model.getInt(10_000), model.stream().max().getAsInt());
+		Assert.assertEquals(model.stream().asLongStream().sum(), model.stream().parallel().asLongStream().sum());
+	}
+
+	@Test
+	public void primesRangeTest() {
+		Assert.assertEquals(25, PrimListModel.primes(0, 100).count());
+		Assert.assertEquals(78_498, PrimListModel.primes(0, 1_000_000).parallel().count());
+		Assert.assertEquals(PrimListModel.primes(1_000_000, 5_000_000).sum(),
+				PrimListModel.primes(1_000_000, 5_000_000).parallel().sum());
+		Assert.assertArrayEquals(new long[] { 101, 103, 107, 109, 113 },
+				PrimListModel.primes(100, 114).parallel().toArray());
+		Assert.assertEquals(0, PrimListModel.primes(24, 29).count());
+
+		long from = (1L << 40) - 1000;
+		long[] primes = PrimListModel.primes(from, from + 1000).toArray();
+		Assert.assertArrayEquals(primes, PrimListModel.primes(from, from + 1000).parallel().toArray());
+		for (long prime : primes) {
+			Assert.assertTrue(LongPrimes.isPrime(prime));
+		}
+	}
+
+	@Test
+	public void concurrentReadTest() throws Exception {
+		PrimListModel model = new PrimListModel(new GapCompressedPrimeStore());
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+
+		Thread reader = new Thread(() -> {
+			try {
+				while (!done.get()) {
+					int size = model.getSize();
+					int previous = 1;
+					for (int i = Math.max(1, size - 1000); i < size; i++) {
+						int prime = model.getInt(i);
+						Assert.assertTrue(prime > previous);
+						Assert.assertTrue(isPrime(prime));
+						previous = prime;
+					}
+				}
+			} catch (Throwable t) {
+				failure.set(t);
+			}
+		});
+		reader.start();
+
+		List<ListDataEvent> events = new ArrayList<>();
+		ListDataListener remover = new ListDataListener() {
+
+			@Override
+			public void intervalRemoved(ListDataEvent e) {
+			}
+
+			@Override
+			public void intervalAdded(ListDataEvent e) {
+				events.add(e);
+				model.removeListDataListener(this);
+			}
+
+			@Override
+			public void contentsChanged(ListDataEvent e) {
+			}
+		};
+		model.addListDataListener(remover);
+
+		for (int i = 0; i < 200; i++) {
+			model.next(1000);
+		}
+		done.set(true);
+		reader.join();
+
+		Assert.assertNull(failure.get());
+		Assert.assertEquals(1, events.size());
+		Assert.assertEquals(200_001, model.getSize());
+	}
+
+	@Test
+	public void metricsTest() throws Exception {
+		PrimListModel model = new PrimListModel();
+		PrimMetrics metrics = new PrimMetrics();
+		model.setMetrics(metrics);
+		model.next(1000);
+		model.next(0);
+		model.advanceTo(100_000);
+
+		Assert.assertEquals(9592, metrics.getPrimesGenerated());
+		Assert.assertEquals(99_991, metrics.getLargestPrime());
+		Assert.assertEquals(2, metrics.getDispatchCount());
+		Assert.assertTrue(metrics.getStoreBytes() >= 9592L * Integer.BYTES);
+
+		VirtualPrimListModel virtual = new VirtualPrimListModel();
+		virtual.setMetrics(metrics);
+		virtual.getInt(10);
+		virtual.getInt(11);
+		virtual.getInt(1_000_000);
+		Assert.assertEquals(1, metrics.getCacheHits());
+		Assert.assertEquals(2, metrics.getCacheMisses());
+
+		metrics.register("test");
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName("hr.fer.zemris.java.gui.prim:type=PrimMetrics,name=\"test\"");
+		Assert.assertEquals(9592L, server.getAttribute(name, "PrimesGenerated"));
+		metrics.unregister();
+		Assert.assertFalse(server.isRegistered(name));
+	}
+
+	@Test
+	public void metricsBucketsOfNegativeSeconds() {
+		Assert.assertEquals(59, PrimMetrics.bucket(-1));
+		Assert.assertEquals(0, PrimMetrics.bucket(-60));
+		Assert.assertEquals(1, PrimMetrics.bucket(61));
+		Assert.assertEquals(0, new PrimMetrics().getGenerationRateLastMinute(), 0);
+	}
+
+	private static List<ListDataEvent> recordEvents(PrimListModel model) {
+		List<ListDataEvent> events = new ArrayList<>();
+		model.addListDataListener(new ListDataListener() {
+			@Override
+			public void intervalRemoved(ListDataEvent e) {
+				events.add(e);
+			}
+
+			@Override
+			public void intervalAdded(ListDataEvent e) {
+				events.add(e);
+			}
+
+			@Override
+			public void contentsChanged(ListDataEvent e) {
+				events.add(e);
+			}
+		});
+		return events;
+	}
+
+	private static boolean isPrime(int number) {
+		if (number % 2 == 0) {
+			return number == 2;
+		}
+		for (int i = 3; i * i <= number; i += 2) {
+			if (number % i == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	//There is no more possible tests since all the other methods are private and with those two tests, the funcionality is proven.
 
 }
@@ -0,0 +1,180 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.awt.Rectangle;
+
+import javax.swing.JList;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrimListViewsTest {
+
+	@Test
+	public void twinPrimesTest() {
+		PrimListModel model = new PrimListModel();
+		DerivedIntListModel twins = PrimListViews.twinPrimes(model);
+		Assert.assertEquals(0, twins.getSize());
+
+		model.next(20);
+		int[] expected = { 3, 5, 11, 17, 29, 41, 59 };
+		Assert.assertEquals(expected.length, twins.getSize());
+		for (int i = 0; i < expected.length; i++) {
+			Assert.assertEquals(expected[i], twins.getInt(i));
+		}
+		Assert.assertEquals(71, model.getInt(20));
+
+		model.next();
+		Assert.assertEquals(71, twins.getInt(twins.getSize() - 1));
+	}
+
+	@Test
+	public void residueTest() {
+		PrimListModel model = new PrimListModel();
+		DerivedIntListModel oneModFour = PrimListViews.residue(model, 4, 1);
+		DerivedIntListModel threeModFour = PrimListViews.residue(model, 4, 3);
+		model.next(10_000);
+		oneModFour.ensureIndexed(Integer.MAX_VALUE);
+		threeModFour.ensureIndexed(Integer.MAX_VALUE);
+
+		Assert.assertEquals(5, oneModFour.getInt(0));
+		int count = 0;
+		for (int i = 0; i < oneModFour.getSize(); i++, count++) {
+			Assert.assertEquals(1, oneModFour.getInt(i) % 4);
+			Assert.assertEquals(oneModFour.getInt(i), model.getInt(oneModFour.getSourceIndex(i)));
+		}
+		for (int i = 0; i < threeModFour.getSize(); i++, count++) {
+			Assert.assertEquals(3, threeModFour.getInt(i) % 4);
+		}
+		Assert.assertEquals(10_000 - 1, count);
+	}
+
+	@Test
+	public void gapsTest() {
+		PrimListModel model = new PrimListModel();
+		model.next(1000);
+		DerivedIntListModel gaps = PrimListViews.gaps(model);
+
+		int prime = 2;
+		for (int i = 0; i < gaps.getSize(); i++) {
+			prime += gaps.getInt(i);
+			Assert.assertEquals(model.getInt(i + 2), prime);
+		}
+		Assert.assertEquals(999, gaps.getSize());
+	}
+
+	@Test
+	public void eventsTest() throws Exception {
+		PrimListModel model = new PrimListModel();
+		DerivedIntListModel twins = PrimListViews.twinPrimes(model);
+		DerivedIntListModel nested = PrimListViews.residue(twins, 6, 5);
+		List<ListDataEvent> events = new ArrayList<>();
+		nested.addListDataListener(new ListDataListener() {
+
+			@Override
+			public void intervalRemoved(ListDataEvent e) {
+				events.add(e);
+			}
+
+			@Override
+			public void intervalAdded(ListDataEvent e) {
+				events.add(e);
+			}
+
+			@Override
+			public void contentsChanged(ListDataEvent e) {
+				events.add(e);
+			}
+		});
+
+		model.next(3);
+		Assert.assertEquals(0, nested.getSize());
+		Assert.assertEquals(0, events.size());
+
+		model.next(1000);
+		Assert.assertEquals(1, events.size());
+		Assert.assertEquals(ListDataEvent.INTERVAL_ADDED, events.get(0).getType());
+		Assert.assertEquals(0, events.get(0).getIndex0());
+		Assert.assertEquals(nested.getSize() - 1, events.get(0).getIndex1());
+		Assert.assertEquals(5, nested.getInt(0));
+		Assert.assertEquals(11, nested.getInt(1));
+		SwingUtilities.invokeAndWait(() -> {
+		});
+		Assert.assertEquals(1, events.size());
+
+		int size = nested.getSize();
+		model.next(1000);
+		Assert.assertEquals(2, events.size());
+		Assert.assertEquals(size, events.get(1).getIndex0());
+	}
+
+	@Test
+	public void viewsAreLazy() {
+		int[] reads = new int[1];
+		IntListModel numbers = new IntListModel() {
+
+			@Override
+			public int getSize() {
+				return Integer.MAX_VALUE;
+			}
+
+			@Override
+			public int getInt(int index) {
+				reads[0]++;
+				return index;
+			}
+
+			@Override
+			public void addListDataListener(ListDataListener l) {
+			}
+
+			@Override
+			public void removeListDataListener(ListDataListener l) {
+			}
+		};
+		DerivedIntListModel even = new DerivedIntListModel(numbers, 0, i -> numbers.getInt(i) % 2 == 0,
+				numbers::getInt);
+		int size = even.getSize();
+		Assert.assertTrue(size > 0 && size < 10_000);
+		Assert.assertTrue(reads[0] < 10_000);
+
+		even.ensureIndexed(10_001);
+		Assert.assertEquals(20_000, even.getInt(10_000));
+		Assert.assertTrue(even.getSize() > 10_000);
+		Assert.assertTrue(reads[0] < 30_000);
+	}
+
+	@Test
+	public void listAfterBulkLoadTest() throws Exception {
+		PrimListModel model = new PrimListModel();
+		DerivedIntListModel gaps = PrimListViews.gaps(model);
+		model.next(200_000);
+
+		List<JList<Integer>> lists = new ArrayList<>();
+		int[] heights = new int[2];
+		Rectangle[] bounds = new Rectangle[2];
+		SwingUtilities.invokeAndWait(() -> {
+			JList<Integer> list = new JList<>(gaps);
+			lists.add(list);
+			int last = gaps.getSize() - 1;
+			heights[0] = list.getPreferredSize().height;
+			bounds[0] = list.getCellBounds(last, last);
+		});
+		Assert.assertTrue(heights[0] > 0);
+		Assert.assertTrue(bounds[0].height > 0);
+
+		SwingUtilities.invokeAndWait(() -> {
+			JList<Integer> list = lists.get(0);
+			int last = gaps.getSize() - 1;
+			heights[1] = list.getPreferredSize().height;
+			bounds[1] = list.getCellBounds(last, last);
+		});
+		Assert.assertTrue(heights[1] > heights[0]);
+		Assert.assertEquals(heights[1], bounds[1].y + bounds[1].height);
+	}
+}
@@ -0,0 +1,45 @@
+package hr.fer.zemris.java.gui.prim;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrimeCountingTest {
+
+	@Test
+	public void smallCountsTest() {
+		PrimeSieve sieve = new PrimeSieve();
+		int count = 0;
+		int prime = sieve.next();
+		for (int x = 0; x < 20_000; x++) {
+			if (x == prime) {
+				count++;
+				prime = sieve.next();
+			}
+			Assert.assertEquals(count, PrimeCounting.primeCount(x));
+		}
+	}
+
+	@Test
+	public void largeCountsTest() {
+		Assert.assertEquals(78_498, PrimeCounting.primeCount(1_000_000));
+		Assert.assertEquals(50_847_534, PrimeCounting.primeCount(1_000_000_000));
+		Assert.assertEquals(105_097_565, PrimeCounting.primeCount(Integer.MAX_VALUE));
+		Assert.assertEquals(37_607_912_018L, PrimeCounting.primeCount(1_000_000_000_000L));
+	}
+
+	@Test
+	public void nthPrimeTest() {
+		PrimeSieve sieve = new PrimeSieve();
+		for (int n = 1; n < 2_000; n++) {
+			Assert.assertEquals(sieve.next(), PrimeCounting.nthPrime(n));
+		}
+		Assert.assertEquals(15_485_863, PrimeCounting.nthPrime(1_000_000));
+		Assert.assertEquals(2_147_483_647, PrimeCounting.nthPrime(105_097_565));
+		Assert.assertEquals(22_801_763_489L, PrimeCounting.nthPrime(1_000_000_000));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nthPrimeZeroTest() {
+		PrimeCounting.nthPrime(0);
+	}
+}
@@ -0,0 +1,60 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrimeExporterTest {
+
+	@Test
+	public void textTest() throws Exception {
+		Path file = Files.createTempFile("primes", ".txt");
+		try {
+			long bytes = new PrimeExporter(PrimeExporter.Format.TEXT).export(200_000, file);
+			List<String> lines = Files.readAllLines(file);
+
+			Assert.assertEquals(Files.size(file), bytes);
+			Assert.assertEquals(200_000, lines.size());
+			PrimeSieve sieve = new PrimeSieve();
+			for (String line : lines) {
+				Assert.assertEquals(Integer.toString(sieve.next()), line);
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void binaryTest() throws Exception {
+		Path file = Files.createTempFile("primes", ".bin");
+		try {
+			long bytes = new PrimeExporter(PrimeExporter.Format.BINARY).export(300_000, file);
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+
+			Assert.assertEquals(300_000L * Long.BYTES, bytes);
+			Assert.assertEquals(bytes, buffer.remaining());
+			PrimeSieve sieve = new PrimeSieve();
+			while (buffer.hasRemaining()) {
+				Assert.assertEquals(sieve.next(), buffer.getLong());
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void emptyTest() throws Exception {
+		Path file = Files.createTempFile("primes", ".txt");
+		try {
+			Assert.assertEquals(0, new PrimeExporter(PrimeExporter.Format.TEXT).export(0, file));
+			Assert.assertEquals(0, Files.size(file));
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
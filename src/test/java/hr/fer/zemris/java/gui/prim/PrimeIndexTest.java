@@ -0,0 +1,87 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrimeIndexTest {
+
+	private static final long SEGMENT_LENGTH = 2L * PrimeSieve.SEGMENT_BITS;
+
+	private static final long[] CENTERS = { 0, SEGMENT_LENGTH, 2 * SEGMENT_LENGTH, 1000 * SEGMENT_LENGTH,
+			1L << 31, PrimeIndex.LIMIT - 1000 };
+
+	private final PrimeIndex index = new PrimeIndex();
+
+	@Test
+	public void isPrimeAroundSegmentBoundariesTest() {
+		for (long center : CENTERS) {
+			for (long n = Math.max(0, center - 1000); n < Math.min(PrimeIndex.LIMIT, center + 1000); n++) {
+				Assert.assertEquals(LongPrimes.isPrime(n), index.isPrime(n));
+			}
+		}
+	}
+
+	@Test
+	public void knownValuesTest() {
+		Assert.assertTrue(index.isPrime(2_147_483_647L));
+		Assert.assertFalse(index.isPrime(2_147_483_649L));
+		Assert.assertTrue(index.isPrime(4_294_967_291L));
+		Assert.assertFalse(index.isPrime(4_294_967_295L));
+		Assert.assertEquals(2_147_483_629L, index.prevPrime(2_147_483_647L));
+		Assert.assertEquals(2_147_483_659L, index.nextPrime(2_147_483_647L));
+		Assert.assertEquals(4_294_967_279L, index.prevPrime(4_294_967_291L));
+	}
+
+	@Test
+	public void nextPrimeTest() {
+		Assert.assertEquals(2, index.nextPrime(0));
+		Assert.assertEquals(2, index.nextPrime(1));
+		Assert.assertEquals(3, index.nextPrime(2));
+		Assert.assertEquals(5, index.nextPrime(3));
+		Assert.assertEquals(2_147_483_647L, index.nextPrime(2_147_483_630L));
+		Assert.assertEquals(4_294_967_291L, index.nextPrime(4_294_967_280L));
+
+		for (long center : CENTERS) {
+			long prime = Math.max(2, center - 1000);
+			while (prime < center + 1000 && prime < 4_294_967_291L) {
+				long next = index.nextPrime(prime);
+				Assert.assertEquals(LongPrimes.nextPrime(prime), next);
+				prime = next;
+			}
+		}
+	}
+
+	@Test
+	public void prevPrimeTest() {
+		Assert.assertEquals(2, index.prevPrime(3));
+		Assert.assertEquals(3, index.prevPrime(4));
+		Assert.assertEquals(3, index.prevPrime(5));
+		Assert.assertEquals(4_294_967_291L, index.prevPrime(PrimeIndex.LIMIT - 1));
+
+		for (long center : CENTERS) {
+			for (long n = Math.max(3, center - 1000); n < Math.min(PrimeIndex.LIMIT, center + 1000); n += 7) {
+				long prev = index.prevPrime(n);
+				Assert.assertTrue(prev < n);
+				Assert.assertTrue(LongPrimes.isPrime(prev));
+				Assert.assertTrue(index.nextPrime(prev) >= n);
+			}
+		}
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void noNextPrimeTest() {
+		index.nextPrime(4_294_967_291L);
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void noPrevPrimeTest() {
+		index.prevPrime(2);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void outOfRangeTest() {
+		index.isPrime(PrimeIndex.LIMIT);
+	}
+}
@@ -0,0 +1,78 @@
+package hr.fer.zemris.java.gui.prim;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SmallestPrimeFactorTableTest {
+
+	private static final int LIMIT = 10_000_000;
+
+	private final SmallestPrimeFactorTable table = new SmallestPrimeFactorTable(LIMIT);
+
+	@Test
+	public void smallestFactorTest() {
+		for (int n = 2; n < 200_000; n++) {
+			int expected = n;
+			for (int d = 2; d * d <= n; d++) {
+				if (n % d == 0) {
+					expected = d;
+					break;
+				}
+			}
+			Assert.assertEquals(expected, table.smallestFactor(n));
+		}
+		Assert.assertEquals(9_999_991, table.smallestFactor(9_999_991));
+		Assert.assertEquals(3_137, table.smallestFactor(3_137 * 3_187));
+	}
+
+	@Test
+	public void factorTest() {
+		int[] out = new int[SmallestPrimeFactorTable.MAX_FACTORS];
+
+		Assert.assertEquals(0, table.factor(1, out));
+		Assert.assertEquals(23, table.factor(1 << 23, out));
+		Assert.assertEquals(6, table.factor(360, out));
+		Assert.assertArrayEquals(new int[] { 2, 2, 2, 3, 3, 5 }, Arrays.copyOf(out, 6));
+
+		Random random = new Random(42);
+		for (int i = 0; i < 100_000; i++) {
+			int n = 1 + random.nextInt(LIMIT);
+			int count = table.factor(n, out);
+			long product = 1;
+			for (int k = 0; k < count; k++) {
+				Assert.assertTrue(LongPrimes.isPrime(out[k]));
+				Assert.assertTrue(k == 0 || out[k - 1] <= out[k]);
+				product *= out[k];
+			}
+			Assert.assertEquals(n, product);
+		}
+	}
+
+	@Test
+	public void factorAllTest() {
+		Random random = new Random(7);
+		int[] numbers = new int[100_000];
+		for (int i = 0; i < numbers.length; i++) {
+			numbers[i] = 1 + random.nextInt(LIMIT);
+		}
+
+		SmallestPrimeFactorTable.Factorization factorization = table.factorAll(numbers);
+		int[] out = new int[SmallestPrimeFactorTable.MAX_FACTORS];
+		Assert.assertEquals(numbers.length, factorization.size());
+		for (int i = 0; i < numbers.length; i++) {
+			int count = table.factor(numbers[i], out);
+			Assert.assertEquals(count, factorization.count(i));
+			for (int k = 0; k < count; k++) {
+				Assert.assertEquals(out[k], factorization.get(i, k));
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void outOfRangeTest() {
+		table.factor(LIMIT + 1, new int[SmallestPrimeFactorTable.MAX_FACTORS]);
+	}
+}
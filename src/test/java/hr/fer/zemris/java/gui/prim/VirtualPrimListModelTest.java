@@ -0,0 +1,46 @@
+package hr.fer.zemris.java.gui.prim;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class VirtualPrimListModelTest {
+
+	@Test
+	public void sizeTest() {
+		Assert.assertEquals(VirtualPrimListModel.MAX_SIZE, new VirtualPrimListModel().getSize());
+		Assert.assertEquals(10, new VirtualPrimListModel(10).getSize());
+	}
+
+	@Test
+	public void sameAsStoredModelTest() {
+		PrimListModel stored = new PrimListModel();
+		stored.next(50_000);
+		VirtualPrimListModel virtual = new VirtualPrimListModel();
+
+		for (int i = stored.getSize() - 1; i >= 0; i--) {
+			Assert.assertEquals(stored.getInt(i), virtual.getInt(i));
+		}
+	}
+
+	@Test
+	public void randomAccessTest() {
+		VirtualPrimListModel model = new VirtualPrimListModel();
+
+		Assert.assertEquals(86_028_121, (int) model.getElementAt(5_000_000));
+		Assert.assertEquals(15_485_863, (int) model.getElementAt(1_000_000));
+		Assert.assertEquals(1, (int) model.getElementAt(0));
+		Assert.assertEquals(2, (int) model.getElementAt(1));
+	}
+
+	@Test
+	public void lastElementTest() {
+		VirtualPrimListModel model = new VirtualPrimListModel();
+
+		Assert.assertEquals(2_147_483_647, model.getInt(model.getSize() - 1));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void outOfRangeTest() {
+		new VirtualPrimListModel(10).getInt(10);
+	}
+}